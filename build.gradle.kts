@@ -1,5 +1,6 @@
 plugins {
     application
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.bobbot"
@@ -16,6 +17,7 @@ dependencies {
     implementation("net.dv8tion:JDA:5.2.2")
     implementation("com.fasterxml.jackson.core:jackson-databind:2.18.2")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.18.2")
+    implementation("com.h2database:h2:2.3.232")
     implementation("org.slf4j:slf4j-simple:2.0.17")
     implementation("dev.langchain4j:langchain4j:0.36.2")
     implementation("dev.langchain4j:langchain4j-open-ai:0.36.2")
@@ -25,6 +27,10 @@ application {
     mainClass.set("com.bobbot.BotApp")
 }
 
+jmh {
+    jmhVersion.set("1.37")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(21))
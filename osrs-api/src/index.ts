@@ -33,6 +33,48 @@ app.get('/api/player/:username', async (req: Request, res: Response) => {
     }
 });
 
+// Batch lookup: POST { "usernames": [...] } and receive one NDJSON line per player
+// as soon as its upstream lookup finishes (completion order, not request order).
+const PLAYER_BATCH_MAX = parseInt(process.env.PLAYER_BATCH_MAX || '100');
+const PLAYER_BATCH_CONCURRENCY = parseInt(process.env.PLAYER_BATCH_CONCURRENCY || '8');
+
+app.post('/api/players', async (req: Request, res: Response) => {
+    const usernames: unknown = Array.isArray(req.body) ? req.body : req.body?.usernames;
+    if (!Array.isArray(usernames) || usernames.some((name) => typeof name !== 'string')) {
+        return res.status(400).json({ error: 'Expected a JSON array of usernames or { "usernames": [...] }' });
+    }
+    if (usernames.length > PLAYER_BATCH_MAX) {
+        return res.status(413).json({ error: `At most ${PLAYER_BATCH_MAX} usernames per batch` });
+    }
+
+    res.status(200);
+    res.setHeader('Content-Type', 'application/x-ndjson');
+    // The response's 'close' marks a client disconnect; the request's 'close' fires
+    // as soon as the body has been read, long before the batch is done.
+    let aborted = false;
+    res.on('close', () => {
+        aborted = !res.writableFinished;
+    });
+
+    const queue = [...new Set(usernames as string[])];
+    const worker = async () => {
+        for (let username = queue.shift(); username !== undefined && !aborted; username = queue.shift()) {
+            let line: object;
+            try {
+                line = { username, status: 200, stats: await hiscores.getStats(username) };
+            } catch (error: any) {
+                const notFound = error.message && error.message.includes('404');
+                line = { username, status: notFound ? 404 : 500, error: notFound ? 'Player not found' : error.message };
+            }
+            if (!aborted) {
+                res.write(JSON.stringify(line) + '\n');
+            }
+        }
+    };
+    await Promise.all(Array.from({ length: Math.min(PLAYER_BATCH_CONCURRENCY, queue.length) }, worker));
+    res.end();
+});
+
 // --- Items & Prices ---
 // Using OSRS Wiki Prices API directly as in the previous Java version
 app.get('/api/item/:query', async (req: Request, res: Response) => {
@@ -0,0 +1,150 @@
+package com.bobbot.osrs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hiscore response parsing: the streaming {@link PlayerStatsParser} against
+ * the tree-based parse it replaced, which decoded the body to a string, read
+ * it into a {@link JsonNode} tree and walked the skills. Covers a single
+ * main-mode response and a 25-player NDJSON batch body. Run with the GC
+ * profiler to compare allocation per response:
+ *
+ * <pre>gradle jmhJar &amp;&amp; java -jar build/libs/bobbot-0.1.0-jmh.jar PlayerStatsParserBenchmark -prof gc</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerStatsParserBenchmark {
+    private static final int BATCH_SIZE = 25;
+    private static final int BOSSES = 60;
+    private static final int ACTIVITIES = 20;
+    private static final String[] CLUES = {"all", "beginner", "easy", "medium", "hard", "elite", "master"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PlayerStatsParser parser = new PlayerStatsParser(mapper.getFactory());
+    private byte[] single;
+    private byte[] batch;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        single = response(random).getBytes(StandardCharsets.UTF_8);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            lines.append("{\"username\":\"player").append(i).append("\",\"status\":200,\"stats\":")
+                    .append(response(random)).append("}\n");
+        }
+        batch = lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PlayerStats singleStreaming() throws IOException {
+        return parser.parse(new ByteArrayInputStream(single));
+    }
+
+    @Benchmark
+    public PlayerStats singleTree() throws IOException {
+        return treeStats(mapper.readTree(new String(single, StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public void batchStreaming(Blackhole blackhole) throws IOException {
+        parser.parseBatch(new ByteArrayInputStream(batch), blackhole::consume);
+    }
+
+    @Benchmark
+    public void batchTree(Blackhole blackhole) throws IOException {
+        String body = new String(batch, StandardCharsets.UTF_8);
+        for (String line : body.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = mapper.readTree(line);
+            blackhole.consume(node.path("username").asText());
+            blackhole.consume(node.path("status").asInt());
+            blackhole.consume(treeStats(node.path("stats")));
+        }
+    }
+
+    /**
+     * The tree walk OsrsApiClient used before the streaming parser.
+     */
+    private static PlayerStats treeStats(JsonNode root) {
+        PlayerStats stats = PlayerStats.empty();
+        JsonNode skillsNode = null;
+        if (root.has("main") && root.get("main").has("skills")) {
+            skillsNode = root.get("main").get("skills");
+        } else if (root.has("skills")) {
+            skillsNode = root.get("skills");
+        }
+        if (skillsNode != null && skillsNode.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = skillsNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                Optional<Skill> skill = Skill.findByName(entry.getKey());
+                if (skill.isPresent()) {
+                    stats.set(skill.get(), entry.getValue().path("level").asInt(), entry.getValue().path("xp").asLong());
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * A main-mode response shaped like osrs-json-hiscores output: skills, clues, bosses and activities.
+     */
+    private static String response(SplittableRandom random) {
+        StringBuilder json = new StringBuilder("{\"name\":\"Some Player\",\"mode\":\"main\",\"main\":{\"skills\":{");
+        for (int i = 0; i < Skill.count(); i++) {
+            Skill skill = Skill.fromLineIndex(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(skill.name().toLowerCase(Locale.ROOT)).append("\":{\"rank\":").append(random.nextInt(1, 2_000_000))
+                    .append(",\"level\":").append(random.nextInt(1, 100))
+                    .append(",\"xp\":").append(random.nextLong(0L, 200_000_000L)).append('}');
+        }
+        json.append("},\"clues\":{");
+        for (int i = 0; i < CLUES.length; i++) {
+            score(json.append(i > 0 ? "," : "").append('"').append(CLUES[i]).append("\":"), random);
+        }
+        json.append("},\"bosses\":{");
+        for (int i = 0; i < BOSSES; i++) {
+            score(json.append(i > 0 ? "," : "").append("\"boss").append(i).append("\":"), random);
+        }
+        json.append("},\"activities\":{");
+        for (int i = 0; i < ACTIVITIES; i++) {
+            score(json.append(i > 0 ? "," : "").append("\"activity").append(i).append("\":"), random);
+        }
+        return json.append("}}}").toString();
+    }
+
+    private static void score(StringBuilder json, SplittableRandom random) {
+        json.append("{\"rank\":").append(random.nextInt(-1, 500_000)).append(",\"score\":").append(random.nextInt(-1, 5_000)).append('}');
+    }
+}
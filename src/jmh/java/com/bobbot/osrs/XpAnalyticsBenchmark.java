@@ -0,0 +1,85 @@
+package com.bobbot.osrs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link XpAnalytics} over a random roster matrix: the full kernel run
+ * sequentially and in parallel, and the branch-free level search against the
+ * linear threshold scan it replaced.
+ *
+ * <pre>gradle jmhJar &amp;&amp; java -jar build/libs/bobbot-0.1.0-jmh.jar XpAnalyticsBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XpAnalyticsBenchmark {
+    @Param({"1000", "20000", "200000"})
+    private int players;
+
+    private long[] matrix;
+    private long[] linearTable;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        matrix = new long[players * XpAnalytics.COLUMNS];
+        for (int cell = 0; cell < matrix.length; cell++) {
+            int level = random.nextInt(1, OsrsXpTable.MAX_VIRTUAL_LEVEL + 1);
+            long from = OsrsXpTable.xpForVirtualLevel(level);
+            long to = level < OsrsXpTable.MAX_VIRTUAL_LEVEL ? OsrsXpTable.xpForVirtualLevel(level + 1) : from + 1;
+            matrix[cell] = random.nextLong(from, to);
+        }
+        linearTable = new long[OsrsXpTable.MAX_VIRTUAL_LEVEL + 1];
+        for (int level = 1; level <= OsrsXpTable.MAX_VIRTUAL_LEVEL; level++) {
+            linearTable[level] = OsrsXpTable.xpForVirtualLevel(level);
+        }
+    }
+
+    @Benchmark
+    public XpAnalytics.Result computeSequential() {
+        return XpAnalytics.compute(matrix, players, false);
+    }
+
+    @Benchmark
+    public XpAnalytics.Result computeParallel() {
+        return XpAnalytics.compute(matrix, players, true);
+    }
+
+    @Benchmark
+    public long levelsBinarySearch() {
+        long sum = 0L;
+        for (long xp : matrix) {
+            sum += XpAnalytics.virtualLevel(xp);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long levelsLinearScan() {
+        long sum = 0L;
+        for (long xp : matrix) {
+            int level = 1;
+            while (level < OsrsXpTable.MAX_VIRTUAL_LEVEL && linearTable[level + 1] <= xp) {
+                level++;
+            }
+            sum += level;
+        }
+        return sum;
+    }
+}
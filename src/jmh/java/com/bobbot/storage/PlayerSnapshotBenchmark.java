@@ -0,0 +1,119 @@
+package com.bobbot.storage;
+
+import com.bobbot.osrs.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full player snapshot load and save through {@link JsonStorage}, for the
+ * pretty-printed players.json and the {@link PlayerSnapshotCodec} players.bin,
+ * at 1k, 10k and 100k players with every skill filled in. Saves are
+ * synchronous (no journal, no flush window), so both include the disk write.
+ *
+ * <pre>gradle jmhJar &amp;&amp; java -jar build/libs/bobbot-0.1.0-jmh.jar PlayerSnapshotBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class PlayerSnapshotBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int players;
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private Path dataDir;
+    private JsonStorage storage;
+    private Map<String, PlayerRecord> roster;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("bobbot-snapshot-bench");
+        storage = open();
+        roster = roster(players);
+        storage.savePlayers(roster);
+        if (load().size() != players) {
+            throw new IllegalStateException("Snapshot did not load back all " + players + " players");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        storage.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, PlayerRecord> load() {
+        JsonStorage fresh = open();
+        try {
+            return fresh.loadPlayers();
+        } finally {
+            fresh.close();
+        }
+    }
+
+    @Benchmark
+    public JsonStorage.FlushStats save() {
+        storage.savePlayers(roster);
+        return storage.flushStats();
+    }
+
+    private JsonStorage open() {
+        return new JsonStorage(dataDir, false, Duration.ZERO, "binary".equals(format));
+    }
+
+    private static Map<String, PlayerRecord> roster(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        Map<String, PlayerRecord> roster = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            int[] levels = new int[Skill.count()];
+            long[] xp = new long[Skill.count()];
+            int totalLevel = 0;
+            long totalXp = 0L;
+            for (int skill = 1; skill < levels.length; skill++) {
+                levels[skill] = random.nextInt(1, 100);
+                xp[skill] = random.nextLong(0L, 13_034_432L);
+                totalLevel += levels[skill];
+                totalXp += xp[skill];
+            }
+            levels[Skill.TOTAL.lineIndex()] = totalLevel;
+            xp[Skill.TOTAL.lineIndex()] = totalXp;
+            roster.put(String.valueOf(100_000_000_000_000_000L + i),
+                    new PlayerRecord("Player " + i, totalLevel, totalXp, now, totalLevel, totalLevel - 5,
+                            totalXp - 50_000L, now, levels, xp, true, i % 2 == 0));
+        }
+        return roster;
+    }
+}
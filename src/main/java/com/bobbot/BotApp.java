@@ -1,13 +1,23 @@
 package com.bobbot;
 
+import com.bobbot.cluster.ClusterCoordinator;
+import com.bobbot.cluster.LevelUpOutbox;
+import com.bobbot.cluster.SharedPlayerStore;
 import com.bobbot.config.EnvConfig;
 import com.bobbot.discord.BotStatus;
+import com.bobbot.discord.LeaderOnlyListener;
 import com.bobbot.discord.ReadyNotificationListener;
 import com.bobbot.discord.SlashCommandListener;
+import com.bobbot.event.BotEvent;
+import com.bobbot.event.EventBus;
+import com.bobbot.event.EventMetrics;
+import com.bobbot.event.LevelUpEvent;
+import com.bobbot.event.XpGainEvent;
 import com.bobbot.discord.MentionHealthListener;
 import com.bobbot.discord.AiMessageListener;
 import com.bobbot.health.HealthHttpServer;
 import com.bobbot.osrs.HiscoreClient;
+import com.bobbot.osrs.HiscoreRateLimiter;
 import com.bobbot.osrs.OsrsApiClient;
 import com.bobbot.osrs.OsrsItemClient;
 import com.bobbot.osrs.Skill;
@@ -15,26 +25,40 @@ import com.bobbot.service.AiService;
 import com.bobbot.service.ConfigService;
 import com.bobbot.service.HealthService;
 import com.bobbot.service.LeaderboardService;
+import com.bobbot.service.LevelUpAnnouncer;
 import com.bobbot.service.LevelUpService;
 import com.bobbot.service.PaginationService;
+import com.bobbot.service.PollScheduler;
 import com.bobbot.service.PriceService;
 import com.bobbot.service.RoleService;
+import com.bobbot.service.ScanEngine;
 import com.bobbot.service.WikiService;
+import com.bobbot.storage.H2PlayerStore;
+import com.bobbot.storage.MappedPlayerStore;
 import com.bobbot.storage.JsonStorage;
+import com.bobbot.storage.PlayerRepository;
+import com.bobbot.storage.PlayerStore;
+import com.bobbot.storage.XpHistoryStore;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
+import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 import net.dv8tion.jda.api.interactions.commands.build.SubcommandGroupData;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.bobbot.discord.RoleListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -57,25 +81,86 @@ public class BotApp {
         LOGGER.info("Booting BobBot");
         EnvConfig envConfig = EnvConfig.load();
         LOGGER.info("Initializing storage at {}", envConfig.dataDirectory().toAbsolutePath());
-        JsonStorage storage = new JsonStorage(envConfig.dataDirectory());
+        boolean binaryPlayers = EnvConfig.PLAYER_FORMAT_BINARY.equals(envConfig.playerFormat());
+        ClusterCoordinator cluster;
+        JsonStorage storage;
+        PlayerStore playerStore;
+        Path historyDir;
+        if (envConfig.clusterEnabled()) {
+            LOGGER.info("Cluster mode enabled as instance {}; using synchronous players.json writes", envConfig.clusterInstanceId());
+            if (!EnvConfig.STORAGE_JSON.equals(envConfig.storageBackend()) || envConfig.playerJournal()
+                    || !envConfig.playerFlushWindow().isZero()) {
+                LOGGER.warn("STORAGE_BACKEND, PLAYER_JOURNAL and PLAYER_FLUSH_WINDOW are ignored in cluster mode");
+            }
+            cluster = new ClusterCoordinator(envConfig.dataDirectory(), envConfig.clusterInstanceId(),
+                    envConfig.hasDiscordToken(), envConfig.clusterPartitions(), envConfig.clusterHeartbeat(), envConfig.clusterLeaseTtl());
+            storage = new JsonStorage(envConfig.dataDirectory(), false, Duration.ZERO, binaryPlayers);
+            playerStore = new SharedPlayerStore(storage, cluster.lock(), envConfig.dataDirectory());
+            historyDir = envConfig.dataDirectory().resolve("instances").resolve(envConfig.clusterInstanceId());
+        } else {
+            cluster = ClusterCoordinator.standalone();
+            storage = new JsonStorage(envConfig.dataDirectory(), envConfig.playerJournal(), envConfig.playerFlushWindow(),
+                    binaryPlayers);
+            playerStore = openPlayerStore(envConfig, storage);
+            historyDir = envConfig.dataDirectory();
+        }
+        storage.watchSettings();
+        PlayerRepository playerRepository = new PlayerRepository(playerStore);
+        XpHistoryStore xpHistory = new XpHistoryStore(historyDir, envConfig.xpHistoryRetention(),
+                envConfig.xpHistoryDownsampleAfter(), cluster.isEnabled() ? historyDir.getParent() : null);
+        EventBus events = new EventBus();
+        EventMetrics eventMetrics = new EventMetrics();
+        events.subscribe("xp-history", XpGainEvent.class, EventBus.DEFAULT_CAPACITY, EventBus.Backpressure.BLOCK,
+                event -> xpHistory.record(event.discordUserId(), event.at(), event.stats()));
+        events.subscribe("metrics", BotEvent.class, EventBus.DEFAULT_CAPACITY, EventBus.Backpressure.DROP_OLDEST,
+                eventMetrics::record);
+        cluster.onHeartbeat(playerRepository::reload);
+        cluster.start();
         
-        OsrsApiClient apiClient = new OsrsApiClient(envConfig.osrsApiUrl());
-        HiscoreClient hiscoreClient = new HiscoreClient(apiClient);
+        OsrsApiClient apiClient = new OsrsApiClient(envConfig.osrsApiUrl(),
+                new HiscoreRateLimiter(envConfig.hiscoreRatePerSecond(), envConfig.hiscoreRateBurst()),
+                envConfig.osrsApiConnectTimeout(), envConfig.osrsApiRequestTimeout(), envConfig.osrsApiRetries(),
+                envConfig.osrsApiBreakerThreshold(), envConfig.osrsApiBreakerCooldown());
+        HiscoreClient hiscoreClient = new HiscoreClient(apiClient, envConfig.hiscoreCacheTtl(), envConfig.hiscoreCacheStale(),
+                envConfig.hiscoreCacheMaxSize());
+        ScanEngine scanEngine = new ScanEngine(hiscoreClient, envConfig.scanConcurrency(), envConfig.scanBatchSize(),
+                envConfig.scanDeadline());
         OsrsItemClient osrsItemClient = new OsrsItemClient(apiClient);
         
-        LevelUpService levelUpService = new LevelUpService(storage, envConfig, hiscoreClient);
-        LeaderboardService leaderboardService = new LeaderboardService(storage, levelUpService);
+        LevelUpService levelUpService = new LevelUpService(storage, playerRepository, events, envConfig, hiscoreClient, scanEngine);
+        LevelUpAnnouncer levelUpAnnouncer = new LevelUpAnnouncer(storage, levelUpService);
+        LevelUpOutbox levelUpOutbox = cluster.isEnabled()
+                ? new LevelUpOutbox(envConfig.dataDirectory(), envConfig.clusterInstanceId(), cluster.lock())
+                : null;
+        if (levelUpOutbox != null && !envConfig.hasDiscordToken()) {
+            events.subscribeBatched("cluster-levelups", LevelUpEvent.class, LevelUpAnnouncer.DIGEST_QUEUE_CAPACITY,
+                    EventBus.Backpressure.BLOCK, LevelUpOutbox.BATCH_WINDOW, levelUpOutbox::append);
+        } else if (envConfig.levelUpDigestWindow().isZero()) {
+            events.subscribe("discord-levelups", LevelUpEvent.class, LevelUpAnnouncer.QUEUE_CAPACITY,
+                    EventBus.Backpressure.DROP_OLDEST, levelUpAnnouncer::announce);
+        } else {
+            events.subscribeBatched("discord-levelups", LevelUpEvent.class, LevelUpAnnouncer.DIGEST_QUEUE_CAPACITY,
+                    EventBus.Backpressure.DROP_OLDEST, envConfig.levelUpDigestWindow(), levelUpAnnouncer::announceDigest);
+        }
+        PollScheduler pollScheduler = new PollScheduler(playerRepository, levelUpService, cluster, envConfig.pollInterval(),
+                envConfig.pollMinInterval(), envConfig.pollMaxInterval(), envConfig.pollBudgetPerMinute());
+        LeaderboardService leaderboardService = new LeaderboardService(storage, playerRepository, levelUpService, events);
         PriceService priceService = new PriceService(osrsItemClient);
         RoleService roleService = new RoleService();
         ConfigService configService = new ConfigService();
         PaginationService paginationService = new PaginationService();
         WikiService wikiService = new WikiService(apiClient);
-        HealthService healthService = new HealthService(envConfig, storage, leaderboardService, hiscoreClient, apiClient);
-        AiService aiService = new AiService(storage, envConfig.dataDirectory(), priceService, levelUpService, leaderboardService, healthService, paginationService, wikiService, apiClient);
+        HealthService healthService = new HealthService(envConfig, storage, playerRepository, leaderboardService, hiscoreClient, apiClient, scanEngine, pollScheduler, cluster, events, eventMetrics);
+        AiService aiService = new AiService(storage, playerRepository, xpHistory, envConfig.dataDirectory(), priceService, levelUpService, leaderboardService, healthService, paginationService, wikiService, apiClient);
         HealthHttpServer healthHttpServer = new HealthHttpServer(envConfig, healthService);
         healthHttpServer.start(Optional.empty());
 
         if (!envConfig.hasDiscordToken()) {
+            if (cluster.isEnabled()) {
+                LOGGER.warn("Discord token not configured. Running as a headless cluster poller.");
+                runHeadless(pollScheduler, cluster, events, healthHttpServer, playerStore, xpHistory, storage);
+                return;
+            }
             LOGGER.error("Discord token not configured. Bot will remain offline until a valid token is provided.");
             return;
         }
@@ -90,13 +175,13 @@ public class BotApp {
                     .setStatus(BotStatus.toOnlineStatus(configuredStatus))
                     .setActivity(Activity.playing("OSRS levels"))
                     .setEventPool(eventPool)
-                    .addEventListeners(
+                    .addEventListeners(clusterListeners(cluster,
                             new SlashCommandListener(envConfig, leaderboardService, levelUpService, healthService, priceService, aiService, roleService, configService, paginationService, wikiService),
                             new ReadyNotificationListener(envConfig, healthService),
                             new MentionHealthListener(healthService),
                             new AiMessageListener(storage, aiService, healthService, paginationService),
                             new RoleListener(roleService, healthService, storage, envConfig)
-                    )
+                    ))
                     .build()
                     .awaitReady();
         } catch (Exception e) {
@@ -105,6 +190,14 @@ public class BotApp {
         }
         LOGGER.info("JDA client ready");
         aiService.setJda(jda);
+        levelUpAnnouncer.setJda(jda);
+        if (levelUpOutbox != null) {
+            cluster.onHeartbeat(() -> {
+                if (cluster.isLeader()) {
+                    levelUpOutbox.drain(events::publish);
+                }
+            });
+        }
         healthHttpServer.setJda(Optional.of(jda));
         leaderboardService.updateBotActivity(jda);
 
@@ -123,8 +216,7 @@ public class BotApp {
                 .addChoice("offline", "offline");
         OptionData skillOption = new OptionData(OptionType.STRING, "skill", "Specific skill (leave empty for all/random)", false, true);
 
-        LOGGER.info("Queueing slash command registration");
-        jda.updateCommands()
+        CommandListUpdateAction commandUpdate = jda.updateCommands()
                 .addCommands(
                         Commands.slash("os", "OSRS player commands")
                                 .addSubcommands(
@@ -210,22 +302,29 @@ public class BotApp {
                                                                 .addOptions(skillOption)
                                                 )
                                 )
-                )
-                .queue(
-                        success -> LOGGER.info("Slash command registration succeeded"),
-                        failure -> LOGGER.error("Slash command registration failed", failure)
                 );
+        if (cluster.isLeader()) {
+            LOGGER.info("Queueing slash command registration");
+            commandUpdate.queue(
+                    success -> LOGGER.info("Slash command registration succeeded"),
+                    failure -> LOGGER.error("Slash command registration failed", failure)
+            );
+        } else {
+            LOGGER.info("Not the cluster leader; leaving slash command registration to the leader");
+        }
 
         ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        LOGGER.info("Scheduling background tasks with poll interval {} and leaderboard interval {}",
+        LOGGER.info("Scheduling background tasks with poll intervals {} to {} (initially {}) and leaderboard interval {}",
+                envConfig.pollMinInterval(),
+                envConfig.pollMaxInterval(),
                 envConfig.pollInterval(),
                 envConfig.leaderboardInterval());
-        scheduler.scheduleAtFixedRate(() -> runLevelUpScan(levelUpService, leaderboardService, jda),
+        scheduler.scheduleWithFixedDelay(() -> runLevelUpScan(pollScheduler, leaderboardService, jda),
                 0,
-                envConfig.pollInterval().toSeconds(),
+                PollScheduler.TICK.toSeconds(),
                 TimeUnit.SECONDS);
 
-        scheduler.scheduleAtFixedRate(() -> runScheduledLeaderboard(leaderboardService, jda),
+        scheduler.scheduleAtFixedRate(() -> runScheduledLeaderboard(leaderboardService, cluster, jda),
                 envConfig.leaderboardInterval().toSeconds(),
                 envConfig.leaderboardInterval().toSeconds(),
                 TimeUnit.SECONDS);
@@ -234,22 +333,111 @@ public class BotApp {
             LOGGER.info("Shutting down scheduler and JDA");
             scheduler.shutdownNow();
             eventPool.shutdownNow();
+            events.close(5_000);
             jda.shutdown();
             healthHttpServer.stop();
+            cluster.close();
+            if (playerStore != storage) {
+                playerStore.close();
+            }
+            xpHistory.close();
+            storage.close();
+        }));
+    }
+
+    /**
+     * Open the configured player store, falling back to players.json if it cannot be opened.
+     *
+     * @param envConfig environment configuration
+     * @param storage JSON storage used for settings and the default player store
+     * @return player store
+     */
+    private static PlayerStore openPlayerStore(EnvConfig envConfig, JsonStorage storage) {
+        if (EnvConfig.STORAGE_H2.equals(envConfig.storageBackend())) {
+            try {
+                H2PlayerStore h2Store = new H2PlayerStore(envConfig.dataDirectory());
+                h2Store.importIfEmpty(storage.loadPlayers());
+                return h2Store;
+            } catch (IOException e) {
+                LOGGER.error("Failed to open H2 player store, falling back to players.json", e);
+            }
+        } else if (EnvConfig.STORAGE_MAPPED.equals(envConfig.storageBackend())) {
+            try {
+                MappedPlayerStore mappedStore = new MappedPlayerStore(envConfig.dataDirectory());
+                mappedStore.importIfEmpty(storage.loadPlayers());
+                return mappedStore;
+            } catch (IOException e) {
+                LOGGER.error("Failed to open mapped player table, falling back to players.json", e);
+            }
+        }
+        return storage;
+    }
+
+    /**
+     * Wrap Discord listeners so that only the cluster leader handles events.
+     *
+     * @param cluster cluster coordinator
+     * @param listeners listeners to register
+     * @return listeners to pass to JDA
+     */
+    private static Object[] clusterListeners(ClusterCoordinator cluster, EventListener... listeners) {
+        if (!cluster.isEnabled()) {
+            return listeners;
+        }
+        return List.of(listeners).stream()
+                .map(listener -> new LeaderOnlyListener(listener, cluster))
+                .toArray();
+    }
+
+    /**
+     * Poll this instance's partitions without a Discord connection until the process is stopped.
+     * Level-ups go to the {@link LevelUpOutbox} for the leader to announce.
+     *
+     * @param pollScheduler scheduler that picks and scans due players
+     * @param cluster cluster coordinator
+     * @param events event bus to drain on shutdown
+     * @param healthHttpServer health server to stop on shutdown
+     * @param playerStore player store to close on shutdown
+     * @param xpHistory XP history store to close on shutdown
+     * @param storage JSON storage to close on shutdown
+     */
+    private static void runHeadless(PollScheduler pollScheduler, ClusterCoordinator cluster, EventBus events, HealthHttpServer healthHttpServer,
+                                    PlayerStore playerStore, XpHistoryStore xpHistory, JsonStorage storage) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(() -> {
+                    try {
+                        pollScheduler.tick();
+                    } catch (Exception e) {
+                        LOGGER.error("Level-up scan failed", e);
+                    }
+                },
+                0,
+                PollScheduler.TICK.toSeconds(),
+                TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOGGER.info("Shutting down headless poller");
+            scheduler.shutdownNow();
+            events.close(5_000);
+            healthHttpServer.stop();
+            cluster.close();
+            playerStore.close();
+            xpHistory.close();
+            storage.close();
         }));
     }
 
     /**
-     * Run a level-up scan with best-effort error handling.
+     * Poll the players that are due with best-effort error handling.
      *
-     * @param levelUpService service to scan levels
+     * @param pollScheduler scheduler that picks and scans due players
      * @param leaderboardService service to update activity
      * @param jda active JDA client
      */
-    private static void runLevelUpScan(LevelUpService levelUpService, LeaderboardService leaderboardService, JDA jda) {
+    private static void runLevelUpScan(PollScheduler pollScheduler, LeaderboardService leaderboardService, JDA jda) {
         try {
-            levelUpService.scanForLevelUps(jda);
-            leaderboardService.updateBotActivity(jda);
+            if (pollScheduler.tick()) {
+                leaderboardService.updateBotActivity(jda);
+            }
         } catch (Exception e) {
             LOGGER.error("Level-up scan failed", e);
         }
@@ -259,11 +447,12 @@ public class BotApp {
      * Run a scheduled leaderboard post if enabled.
      *
      * @param leaderboardService service to post leaderboard
+     * @param cluster cluster coordinator; only the leader posts
      * @param jda active JDA client
      */
-    private static void runScheduledLeaderboard(LeaderboardService leaderboardService, JDA jda) {
+    private static void runScheduledLeaderboard(LeaderboardService leaderboardService, ClusterCoordinator cluster, JDA jda) {
         try {
-            if (leaderboardService.isScheduledLeaderboardEnabled()) {
+            if (cluster.isLeader() && leaderboardService.isScheduledLeaderboardEnabled()) {
                 leaderboardService.postLeaderboard(jda, true, null);
             }
         } catch (Exception e) {
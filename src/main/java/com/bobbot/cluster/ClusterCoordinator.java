@@ -0,0 +1,428 @@
+package com.bobbot.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the roster between several bot processes that share a data directory.
+ * <p>
+ * Discord IDs hash into a fixed number of partitions. Every instance renews a
+ * member lease on each heartbeat, and partitions and leadership are leases too:
+ * files in {@code <data>/cluster/} naming an owner and an expiry time, read and
+ * written under a {@link ClusterLock}. On each heartbeat an instance works out
+ * its fair share of partitions from the live members, releases any it holds
+ * above that share and claims free or expired ones up to it, so partitions
+ * rebalance within a heartbeat or two when an instance joins, and within one
+ * lease TTL when an instance dies. The leader lease is held by one instance at
+ * a time and passes to another once it expires. Instances that cannot lead,
+ * such as headless pollers without a Discord connection, poll their partitions
+ * but never take the leader lease.
+ * <p>
+ * Ownership is only trusted until the lease written on the last heartbeat would
+ * expire, so an instance that stalls stops polling before anyone else can take
+ * its partitions over.
+ */
+public class ClusterCoordinator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterCoordinator.class);
+    private static final String DIRECTORY = "cluster";
+    private static final String MEMBER_PREFIX = "member-";
+    private static final String PARTITION_PREFIX = "partition-";
+    private static final String LEADER_FILE = "leader.json";
+    private static final String LEASE_SUFFIX = ".json";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final String instanceId;
+    private final boolean canLead;
+    private final int partitions;
+    private final Duration heartbeatInterval;
+    private final Duration leaseTtl;
+    private final ClusterLock lock;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<Runnable> heartbeatListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService heartbeats;
+    private volatile View view;
+    private long rebalances;
+
+    /**
+     * A lease file.
+     *
+     * @param owner instance ID holding the lease
+     * @param renewedAt last renewal time
+     * @param expiresAt time after which the lease may be taken over
+     */
+    record Lease(String owner, Instant renewedAt, Instant expiresAt) {
+        boolean isLive(Instant now) {
+            return owner != null && expiresAt != null && expiresAt.isAfter(now);
+        }
+    }
+
+    /**
+     * What this instance believed after its last heartbeat.
+     */
+    private record View(List<String> members, String leader, Set<Integer> owned, Instant validUntil, Instant at) {
+    }
+
+    private ClusterCoordinator(boolean enabled, Path dataDir, String instanceId, boolean canLead, int partitions,
+                               Duration heartbeatInterval, Duration leaseTtl) {
+        this.enabled = enabled;
+        this.dir = dataDir == null ? null : dataDir.resolve(DIRECTORY);
+        this.instanceId = instanceId;
+        this.canLead = canLead;
+        this.partitions = Math.max(1, partitions);
+        this.heartbeatInterval = heartbeatInterval;
+        this.leaseTtl = leaseTtl.compareTo(heartbeatInterval.multipliedBy(2)) < 0
+                ? heartbeatInterval.multipliedBy(3)
+                : leaseTtl;
+        this.lock = dir == null ? null : new ClusterLock(dir);
+    }
+
+    /**
+     * Create a coordinator for an instance in a cluster.
+     *
+     * @param dataDir shared data directory
+     * @param instanceId unique ID of this instance
+     * @param canLead false if this instance must never take the leader lease
+     * @param partitions number of roster partitions; must be the same on every instance
+     * @param heartbeatInterval how often leases are renewed
+     * @param leaseTtl how long a lease lives without renewal; at least twice the heartbeat interval
+     */
+    public ClusterCoordinator(Path dataDir, String instanceId, boolean canLead, int partitions, Duration heartbeatInterval,
+                              Duration leaseTtl) {
+        this(true, dataDir, instanceId, canLead, partitions, heartbeatInterval, leaseTtl);
+    }
+
+    /**
+     * @return a coordinator for a single instance, which owns every player and is always the leader
+     */
+    public static ClusterCoordinator standalone() {
+        return new ClusterCoordinator(false, null, "standalone", true, 1, Duration.ofSeconds(10), Duration.ofSeconds(30));
+    }
+
+    /**
+     * @return true if the roster is shared with other instances
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return this instance's ID
+     */
+    public String instanceId() {
+        return instanceId;
+    }
+
+    /**
+     * @return lock shared with every instance using the data directory, or null when standalone
+     */
+    public ClusterLock lock() {
+        return lock;
+    }
+
+    /**
+     * Run a task after every heartbeat, for example to pick up roster changes made by other instances.
+     *
+     * @param listener task to run
+     */
+    public void onHeartbeat(Runnable listener) {
+        heartbeatListeners.add(listener);
+    }
+
+    /**
+     * Join the cluster with an immediate heartbeat and keep renewing leases in the background.
+     */
+    public synchronized void start() {
+        if (!enabled || heartbeats != null) {
+            return;
+        }
+        heartbeat();
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeatSafely, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop heartbeating and give up every lease so the other instances take over right away.
+     */
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+            heartbeats = null;
+        }
+        lock.lock();
+        try {
+            for (int partition = 0; partition < partitions; partition++) {
+                releaseIfOwned(partitionFile(partition));
+            }
+            releaseIfOwned(dir.resolve(LEADER_FILE));
+            Files.deleteIfExists(memberFile(instanceId));
+            view = null;
+            LOGGER.info("Instance {} left the cluster", instanceId);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to release cluster leases for {}", instanceId, e);
+        } finally {
+            lock.unlock();
+            lock.close();
+        }
+    }
+
+    /**
+     * @return true if this instance may run cluster-wide work such as leaderboard posts
+     */
+    public boolean isLeader() {
+        if (!enabled) {
+            return true;
+        }
+        View current = view;
+        return current != null && instanceId.equals(current.leader()) && Instant.now().isBefore(current.validUntil());
+    }
+
+    /**
+     * @param discordUserId Discord user ID
+     * @return true if this instance should poll the player
+     */
+    public boolean owns(String discordUserId) {
+        if (!enabled) {
+            return true;
+        }
+        View current = view;
+        return current != null && Instant.now().isBefore(current.validUntil())
+                && current.owned().contains(partitionOf(discordUserId));
+    }
+
+    /**
+     * @param discordUserId Discord user ID
+     * @return partition the player belongs to
+     */
+    public int partitionOf(String discordUserId) {
+        int hash = discordUserId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    /**
+     * @return one-line description of the cluster for health output
+     */
+    public String describe() {
+        if (!enabled) {
+            return "standalone";
+        }
+        View current = view;
+        if (current == null) {
+            return instanceId + " not joined";
+        }
+        boolean valid = Instant.now().isBefore(current.validUntil());
+        return String.format(Locale.US, "%s%s, %d members, leader %s, owns %d/%d partitions %s, last heartbeat %s, %,d rebalances",
+                instanceId, valid ? "" : " (leases lapsed)", current.members().size(), Objects.requireNonNullElse(current.leader(), "none"),
+                current.owned().size(), partitions, current.owned(), current.at(), rebalancesSoFar());
+    }
+
+    /**
+     * Renew this instance's leases and rebalance partitions. Runs under the cluster lock.
+     */
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        View next;
+        try {
+            Files.createDirectories(dir);
+            Instant now = Instant.now();
+            Lease renewed = new Lease(instanceId, now, now.plus(leaseTtl));
+            write(memberFile(instanceId), renewed);
+            List<String> members = liveMembers(now);
+            String leader = electLeader(now, members, renewed);
+            Set<Integer> owned = balancePartitions(now, members, renewed);
+            next = new View(List.copyOf(members), leader, Set.copyOf(owned),
+                    renewed.expiresAt().minus(heartbeatInterval), now);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cluster heartbeat failed for {}", instanceId, e);
+            return;
+        } finally {
+            lock.unlock();
+        }
+        View previous = view;
+        view = next;
+        if (previous == null || !previous.owned().equals(next.owned()) || !Objects.equals(previous.leader(), next.leader())) {
+            LOGGER.info("Cluster view for {}: {} members, leader {}, partitions {}",
+                    instanceId, next.members().size(), next.leader(), new TreeSet<>(next.owned()));
+        }
+        for (Runnable listener : heartbeatListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Cluster heartbeat listener failed", e);
+            }
+        }
+    }
+
+    private void heartbeatSafely() {
+        try {
+            heartbeat();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Cluster heartbeat failed", e);
+        }
+    }
+
+    /**
+     * Read every member lease, deleting expired ones.
+     *
+     * @return live instance IDs in sorted order
+     */
+    private List<String> liveMembers(Instant now) throws IOException {
+        List<String> members = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, MEMBER_PREFIX + "*" + LEASE_SUFFIX)) {
+            for (Path file : files) {
+                Lease lease = read(file);
+                if (lease != null && lease.isLive(now)) {
+                    members.add(lease.owner());
+                } else {
+                    LOGGER.info("Removing expired cluster member lease {}", file.getFileName());
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        members.sort(null);
+        return members;
+    }
+
+    /**
+     * Renew or take the leader lease unless another live member holds it.
+     *
+     * @return leader's instance ID, or null if no instance that can lead holds the lease
+     */
+    private String electLeader(Instant now, List<String> members, Lease renewed) throws IOException {
+        Path file = dir.resolve(LEADER_FILE);
+        Lease current = read(file);
+        if (current != null && current.isLive(now) && members.contains(current.owner())
+                && !instanceId.equals(current.owner())) {
+            return current.owner();
+        }
+        if (!canLead) {
+            releaseIfOwned(file);
+            return null;
+        }
+        if (current == null || !instanceId.equals(current.owner())) {
+            LOGGER.info("Instance {} took the leader lease", instanceId);
+        }
+        write(file, renewed);
+        return instanceId;
+    }
+
+    /**
+     * Keep this instance's fair share of partitions: renew the ones it holds,
+     * release any above its share, and claim free ones up to it.
+     *
+     * @return partitions owned after the heartbeat
+     */
+    private Set<Integer> balancePartitions(Instant now, List<String> members, Lease renewed) throws IOException {
+        int index = Math.max(0, members.indexOf(instanceId));
+        int memberCount = Math.max(1, members.size());
+        int share = partitions / memberCount + (index < partitions % memberCount ? 1 : 0);
+        TreeSet<Integer> owned = new TreeSet<>();
+        List<Integer> free = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            Lease lease = read(partitionFile(partition));
+            if (lease == null || !lease.isLive(now) || !members.contains(lease.owner())) {
+                free.add(partition);
+            } else if (instanceId.equals(lease.owner())) {
+                owned.add(partition);
+            }
+        }
+        boolean changed = false;
+        while (owned.size() > share) {
+            int released = owned.pollLast();
+            Files.deleteIfExists(partitionFile(released));
+            changed = true;
+        }
+        for (int partition : free) {
+            if (owned.size() >= share) {
+                break;
+            }
+            owned.add(partition);
+            changed = true;
+        }
+        for (int partition : owned) {
+            write(partitionFile(partition), renewed);
+        }
+        if (changed) {
+            synchronized (this) {
+                rebalances++;
+            }
+        }
+        return owned;
+    }
+
+    private synchronized long rebalancesSoFar() {
+        return rebalances;
+    }
+
+    private void releaseIfOwned(Path file) throws IOException {
+        Lease lease = read(file);
+        if (lease != null && instanceId.equals(lease.owner())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Path memberFile(String member) {
+        return dir.resolve(MEMBER_PREFIX + member + LEASE_SUFFIX);
+    }
+
+    private Path partitionFile(int partition) {
+        return dir.resolve(PARTITION_PREFIX + partition + LEASE_SUFFIX);
+    }
+
+    private Lease read(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return mapper.readValue(file.toFile(), Lease.class);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable cluster lease {}", file.getFileName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Write a lease through a temp file so readers never see a torn lease.
+     */
+    private void write(Path file, Lease lease) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        mapper.writeValue(temp.toFile(), lease);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.bobbot.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reentrant lock shared by every bot process using the same data directory.
+ * Threads of one process queue on an in-process lock, and the thread holding
+ * it takes an OS file lock on {@code cluster.lock}, so lease updates and
+ * player writes from different processes never interleave.
+ */
+public class ClusterLock {
+    private final Path lockFile;
+    private final ReentrantLock local = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    /**
+     * Create a lock backed by a file in the cluster directory.
+     *
+     * @param clusterDir cluster directory
+     */
+    public ClusterLock(Path clusterDir) {
+        this.lockFile = clusterDir.resolve("cluster.lock");
+    }
+
+    /**
+     * Acquire the lock, waiting for other threads and processes.
+     *
+     * @throws UncheckedIOException if the lock file cannot be opened or locked
+     */
+    public void lock() {
+        local.lock();
+        if (local.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                Files.createDirectories(lockFile.getParent());
+                channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            fileLock = channel.lock();
+        } catch (IOException e) {
+            local.unlock();
+            throw new UncheckedIOException("Failed to lock " + lockFile, e);
+        }
+    }
+
+    /**
+     * Release the lock.
+     */
+    public void unlock() {
+        try {
+            if (local.getHoldCount() == 1 && fileLock != null) {
+                fileLock.release();
+                fileLock = null;
+            }
+        } catch (IOException ignored) {
+            // the lock goes away with the channel or the process
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * Close the lock file.
+     */
+    public void close() {
+        local.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException ignored) {
+            // best effort
+        } finally {
+            local.unlock();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.bobbot.cluster;
+
+import com.bobbot.event.LevelUpEvent;
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.SkillStat;
+import com.bobbot.storage.PlayerRecord;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Level-ups found by instances that cannot post to Discord, waiting for the
+ * leader to announce them.
+ * <p>
+ * A headless instance appends each batch of {@link LevelUpEvent}s as one file
+ * in {@code <data>/cluster/levelups/}, written through a temp file so the
+ * leader never reads a torn batch. On every heartbeat the leader takes the
+ * pending files under the {@link ClusterLock}, deletes them and republishes the
+ * events on its own event bus, where the announcer picks them up like its own.
+ */
+public class LevelUpOutbox {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LevelUpOutbox.class);
+    private static final String DIRECTORY = "levelups";
+    private static final String SUFFIX = ".json";
+    /**
+     * How long a headless instance collects level-ups before writing them out as one batch.
+     */
+    public static final Duration BATCH_WINDOW = Duration.ofSeconds(1);
+
+    private final Path dir;
+    private final String instanceId;
+    private final ClusterLock lock;
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * A level-up as written to the outbox.
+     *
+     * @param discordUserId Discord user ID
+     * @param previous player record before the new stats were applied
+     * @param stats new hiscore stats
+     * @param at detection time
+     */
+    record Pending(String discordUserId, PlayerRecord previous, List<SkillStat> stats, Instant at) {
+        static Pending of(LevelUpEvent event) {
+            return new Pending(event.discordUserId(), event.previous(), event.stats().toSkillStats(), event.at());
+        }
+
+        LevelUpEvent toEvent() {
+            return new LevelUpEvent(discordUserId, previous, PlayerStats.of(stats), at);
+        }
+    }
+
+    /**
+     * Create an outbox in the shared data directory.
+     *
+     * @param dataDir shared data directory
+     * @param instanceId ID of this instance, used to name the files it writes
+     * @param lock cluster lock taken while the leader drains the outbox
+     */
+    public LevelUpOutbox(Path dataDir, String instanceId, ClusterLock lock) {
+        this.dir = dataDir.resolve("cluster").resolve(DIRECTORY);
+        this.instanceId = instanceId;
+        this.lock = lock;
+    }
+
+    /**
+     * Write a batch of level-ups for the leader to announce.
+     *
+     * @param events level-ups found by this instance, oldest first
+     */
+    public void append(List<LevelUpEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Pending> pending = new ArrayList<>(events.size());
+        for (LevelUpEvent event : events) {
+            pending.add(Pending.of(event));
+        }
+        String name = String.format("%013d-%s-%d", System.currentTimeMillis(), instanceId, sequence.incrementAndGet());
+        Path file = dir.resolve(name + SUFFIX);
+        Path temp = dir.resolve(name + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            mapper.writeValue(temp.toFile(), pending);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to hand {} level-ups to the leader", events.size(), e);
+        }
+    }
+
+    /**
+     * Take every pending level-up out of the outbox, oldest batch first.
+     *
+     * @param handler receives each level-up after its batch was removed
+     * @return number of level-ups handed over
+     */
+    public int drain(Consumer<LevelUpEvent> handler) {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        List<LevelUpEvent> drained = new ArrayList<>();
+        lock.lock();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            List<Path> batches = new ArrayList<>();
+            files.forEach(batches::add);
+            batches.sort(null);
+            for (Path file : batches) {
+                try {
+                    for (Pending pending : mapper.readValue(file.toFile(), new TypeReference<List<Pending>>() {})) {
+                        drained.add(pending.toEvent());
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Dropping unreadable level-up batch {}", file.getFileName(), e);
+                }
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read the level-up outbox", e);
+        } finally {
+            lock.unlock();
+        }
+        drained.forEach(handler);
+        if (!drained.isEmpty()) {
+            LOGGER.info("Took {} level-ups from headless instances", drained.size());
+        }
+        return drained.size();
+    }
+}
@@ -0,0 +1,127 @@
+package com.bobbot.cluster;
+
+import com.bobbot.storage.PlayerRecord;
+import com.bobbot.storage.PlayerStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Player store shared by several bot processes. Every update runs under the
+ * {@link ClusterLock}: the repository first gets the players as persisted by
+ * the other processes (read only when the shared version counter has moved),
+ * applies its change to those, and writes the result back as a full snapshot,
+ * so no process ever overwrites another's change with a stale copy. The
+ * delegate must write synchronously, i.e. without a journal or flush window.
+ */
+public class SharedPlayerStore implements PlayerStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedPlayerStore.class);
+    private static final String VERSION_FILE = "players.version";
+
+    private final PlayerStore delegate;
+    private final ClusterLock lock;
+    private final Path versionFile;
+    private long seenVersion = -1L;
+
+    /**
+     * Wrap a store for shared use. The delegate stays owned by the caller and is not closed by this store.
+     *
+     * @param delegate store writing the shared player file
+     * @param lock cluster lock
+     * @param dataDir shared data directory
+     */
+    public SharedPlayerStore(PlayerStore delegate, ClusterLock lock, Path dataDir) {
+        this.delegate = delegate;
+        this.lock = lock;
+        this.versionFile = dataDir.resolve("cluster").resolve(VERSION_FILE);
+    }
+
+    @Override
+    public Map<String, PlayerRecord> loadPlayers() {
+        lock.lock();
+        try {
+            seenVersion = readVersion();
+            return delegate.loadPlayers();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void savePlayers(Map<String, PlayerRecord> players) {
+        lock.lock();
+        try {
+            delegate.savePlayers(players);
+            bumpVersion();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void savePlayerChanges(Map<String, PlayerRecord> players, Map<String, PlayerRecord> upserts,
+                                  Collection<String> removals) {
+        savePlayers(players);
+    }
+
+    @Override
+    public Map<String, PlayerRecord> beginUpdate() {
+        lock.lock();
+        try {
+            long version = readVersion();
+            if (version == seenVersion) {
+                return null;
+            }
+            seenVersion = version;
+            return delegate.loadPlayers();
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void endUpdate() {
+        lock.unlock();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.flush();
+    }
+
+    private long readVersion() {
+        try {
+            if (!Files.exists(versionFile)) {
+                return 0L;
+            }
+            return Long.parseLong(Files.readString(versionFile, StandardCharsets.UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Unreadable {}; reloading players", versionFile, e);
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private void bumpVersion() {
+        long next = Math.max(0L, readVersion()) + 1;
+        try {
+            Files.createDirectories(versionFile.getParent());
+            Files.writeString(versionFile, Long.toString(next), StandardCharsets.UTF_8);
+            seenVersion = next;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to bump {}", versionFile, e);
+            seenVersion = -1L;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.time.Duration;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Environment-backed configuration for the bot.
@@ -18,6 +19,36 @@ import java.util.Optional;
  * @param pollInterval interval between OSRS level checks
  * @param dataDirectory directory for JSON storage
  * @param healthPort port for the health HTTP server
+ * @param environment detected or configured environment name
+ * @param osrsApiUrl base URL of the Node.js OSRS API
+ * @param playerJournal whether player changes are journaled instead of rewriting players.json
+ * @param playerFlushWindow minimum time between full players.json rewrites
+ * @param storageBackend player storage backend ("json", "h2" or "mapped")
+ * @param playerFormat on-disk format of the player snapshot for the json backend ("json" or "binary")
+ * @param xpHistoryRetention how long per-skill XP samples are kept
+ * @param xpHistoryDownsampleAfter age after which XP samples are thinned to one per hour
+ * @param scanConcurrency maximum number of concurrent hiscore requests during a scan
+ * @param scanBatchSize players fetched per osrs-api request during a scan
+ * @param scanDeadline maximum wall-clock time for one hiscore scan
+ * @param pollMinInterval shortest per-player poll interval, used for players gaining XP
+ * @param pollMaxInterval longest per-player poll interval idle players back off to
+ * @param pollBudgetPerMinute maximum hiscore polls per minute
+ * @param hiscoreCacheTtl how long fetched hiscore stats are served from the cache; zero disables it
+ * @param hiscoreCacheStale how long past the TTL cached stats may be served while they are refreshed
+ * @param hiscoreCacheMaxSize maximum number of players kept in the hiscore cache
+ * @param hiscoreRatePerSecond sustained hiscore lookups per second; zero disables rate limiting
+ * @param hiscoreRateBurst hiscore lookups allowed at once after an idle period
+ * @param osrsApiConnectTimeout timeout for connecting to the osrs-api
+ * @param osrsApiRequestTimeout timeout for each osrs-api request attempt
+ * @param osrsApiRetries retries after a failed osrs-api request
+ * @param osrsApiBreakerThreshold consecutive failures that open an osrs-api endpoint's circuit
+ * @param osrsApiBreakerCooldown how long an open circuit fails fast before a probe call
+ * @param clusterEnabled whether the roster is split between several instances sharing the data directory
+ * @param clusterInstanceId unique ID of this instance within the cluster
+ * @param clusterPartitions number of roster partitions; must match on every instance
+ * @param clusterHeartbeat how often cluster leases are renewed
+ * @param clusterLeaseTtl how long a cluster lease lives without renewal
+ * @param levelUpDigestWindow how long level-ups are collected into one digest; zero announces each one separately
  */
 public record EnvConfig(
         String discordToken,
@@ -27,8 +58,57 @@ public record EnvConfig(
         Path dataDirectory,
         int healthPort,
         String environment,
-        String osrsApiUrl
+        String osrsApiUrl,
+        boolean playerJournal,
+        Duration playerFlushWindow,
+        String storageBackend,
+        String playerFormat,
+        Duration xpHistoryRetention,
+        Duration xpHistoryDownsampleAfter,
+        int scanConcurrency,
+        int scanBatchSize,
+        Duration scanDeadline,
+        Duration pollMinInterval,
+        Duration pollMaxInterval,
+        int pollBudgetPerMinute,
+        Duration hiscoreCacheTtl,
+        Duration hiscoreCacheStale,
+        int hiscoreCacheMaxSize,
+        int hiscoreRatePerSecond,
+        int hiscoreRateBurst,
+        Duration osrsApiConnectTimeout,
+        Duration osrsApiRequestTimeout,
+        int osrsApiRetries,
+        int osrsApiBreakerThreshold,
+        Duration osrsApiBreakerCooldown,
+        boolean clusterEnabled,
+        String clusterInstanceId,
+        int clusterPartitions,
+        Duration clusterHeartbeat,
+        Duration clusterLeaseTtl,
+        Duration levelUpDigestWindow
 ) {
+    /**
+     * Player storage backed by players.json.
+     */
+    public static final String STORAGE_JSON = "json";
+    /**
+     * Player storage backed by an embedded H2 database.
+     */
+    public static final String STORAGE_H2 = "h2";
+    /**
+     * Player storage backed by a memory-mapped table of fixed-width slots.
+     */
+    public static final String STORAGE_MAPPED = "mapped";
+    /**
+     * Player snapshot written as pretty-printed players.json.
+     */
+    public static final String PLAYER_FORMAT_JSON = "json";
+    /**
+     * Player snapshot written as compact binary players.bin.
+     */
+    public static final String PLAYER_FORMAT_BINARY = "binary";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(EnvConfig.class);
 
     /**
@@ -50,12 +130,50 @@ public record EnvConfig(
         int healthPort = parsePort(env, 8080, "health-port", "health_port", "HEALTH_PORT", "PORT");
         String environment = detectEnvironment(env);
         String osrsApiUrl = firstEnvValue(env, "osrs-api-url", "osrs_api_url", "OSRS_API_URL").orElse("http://localhost:3000");
-        EnvConfig config = new EnvConfig(token, superuser, leaderboardInterval, pollInterval, dataDir, healthPort, environment, osrsApiUrl);
+        boolean playerJournal = parseBoolean(env, false, "player-journal", "player_journal", "PLAYER_JOURNAL");
+        Duration playerFlushWindow = parseDuration(env, Duration.ofSeconds(5), "player-flush-window", "player_flush_window", "PLAYER_FLUSH_WINDOW");
+        String storageBackend = parseChoice(env, STORAGE_JSON, Set.of(STORAGE_JSON, STORAGE_H2, STORAGE_MAPPED),
+                "storage-backend", "storage_backend", "STORAGE_BACKEND");
+        String playerFormat = parseChoice(env, PLAYER_FORMAT_JSON, Set.of(PLAYER_FORMAT_JSON, PLAYER_FORMAT_BINARY),
+                "player-format", "player_format", "PLAYER_FORMAT");
+        Duration xpHistoryRetention = parseDuration(env, Duration.ofDays(365), "xp-history-retention", "xp_history_retention", "XP_HISTORY_RETENTION");
+        Duration xpHistoryDownsampleAfter = parseDuration(env, Duration.ofDays(7), "xp-history-downsample-after", "xp_history_downsample_after", "XP_HISTORY_DOWNSAMPLE_AFTER");
+        int scanConcurrency = parsePositiveInt(env, 8, "scan-concurrency", "scan_concurrency", "SCAN_CONCURRENCY");
+        int scanBatchSize = parsePositiveInt(env, 25, "scan-batch-size", "scan_batch_size", "SCAN_BATCH_SIZE");
+        Duration scanDeadline = parseDuration(env, pollInterval, "scan-deadline", "scan_deadline", "SCAN_DEADLINE");
+        Duration pollMinInterval = parseDuration(env, Duration.ofMinutes(1), "poll-min-interval", "poll_min_interval", "POLL_MIN_INTERVAL");
+        Duration pollMaxInterval = parseDuration(env, Duration.ofHours(12), "poll-max-interval", "poll_max_interval", "POLL_MAX_INTERVAL");
+        int pollBudgetPerMinute = parsePositiveInt(env, 60, "poll-budget-per-minute", "poll_budget_per_minute", "POLL_BUDGET_PER_MINUTE");
+        Duration hiscoreCacheTtl = parseDuration(env, Duration.ofSeconds(30), "hiscore-cache-ttl", "hiscore_cache_ttl", "HISCORE_CACHE_TTL");
+        Duration hiscoreCacheStale = parseDuration(env, Duration.ofMinutes(5), "hiscore-cache-stale", "hiscore_cache_stale", "HISCORE_CACHE_STALE");
+        int hiscoreCacheMaxSize = parsePositiveInt(env, 5000, "hiscore-cache-max-size", "hiscore_cache_max_size", "HISCORE_CACHE_MAX_SIZE");
+        int hiscoreRatePerSecond = parseNonNegativeInt(env, 5, "hiscore-rate-per-second", "hiscore_rate_per_second", "HISCORE_RATE_PER_SECOND");
+        int hiscoreRateBurst = parsePositiveInt(env, 25, "hiscore-rate-burst", "hiscore_rate_burst", "HISCORE_RATE_BURST");
+        Duration osrsApiConnectTimeout = parseDuration(env, Duration.ofSeconds(5), "osrs-api-connect-timeout", "osrs_api_connect_timeout", "OSRS_API_CONNECT_TIMEOUT");
+        Duration osrsApiRequestTimeout = parseDuration(env, Duration.ofSeconds(30), "osrs-api-request-timeout", "osrs_api_request_timeout", "OSRS_API_REQUEST_TIMEOUT");
+        int osrsApiRetries = parseNonNegativeInt(env, 2, "osrs-api-retries", "osrs_api_retries", "OSRS_API_RETRIES");
+        int osrsApiBreakerThreshold = parsePositiveInt(env, 5, "osrs-api-breaker-threshold", "osrs_api_breaker_threshold", "OSRS_API_BREAKER_THRESHOLD");
+        Duration osrsApiBreakerCooldown = parseDuration(env, Duration.ofSeconds(30), "osrs-api-breaker-cooldown", "osrs_api_breaker_cooldown", "OSRS_API_BREAKER_COOLDOWN");
+        boolean clusterEnabled = parseBoolean(env, false, "cluster-enabled", "cluster_enabled", "CLUSTER_ENABLED");
+        String clusterInstanceId = firstEnvValue(env, "cluster-instance-id", "cluster_instance_id", "CLUSTER_INSTANCE_ID")
+                .map(EnvConfig::sanitizeInstanceId)
+                .orElseGet(EnvConfig::defaultInstanceId);
+        int clusterPartitions = parsePositiveInt(env, 16, "cluster-partitions", "cluster_partitions", "CLUSTER_PARTITIONS");
+        Duration clusterHeartbeat = parseDuration(env, Duration.ofSeconds(10), "cluster-heartbeat", "cluster_heartbeat", "CLUSTER_HEARTBEAT");
+        Duration clusterLeaseTtl = parseDuration(env, Duration.ofSeconds(30), "cluster-lease-ttl", "cluster_lease_ttl", "CLUSTER_LEASE_TTL");
+        Duration levelUpDigestWindow = parseDuration(env, Duration.ZERO, "levelup-digest-window", "levelup_digest_window", "LEVELUP_DIGEST_WINDOW");
+        EnvConfig config = new EnvConfig(token, superuser, leaderboardInterval, pollInterval, dataDir, healthPort, environment, osrsApiUrl,
+                playerJournal, playerFlushWindow, storageBackend, playerFormat, xpHistoryRetention, xpHistoryDownsampleAfter,
+                scanConcurrency, scanBatchSize, scanDeadline, pollMinInterval, pollMaxInterval, pollBudgetPerMinute,
+                hiscoreCacheTtl, hiscoreCacheStale, hiscoreCacheMaxSize, hiscoreRatePerSecond, hiscoreRateBurst,
+                osrsApiConnectTimeout, osrsApiRequestTimeout, osrsApiRetries, osrsApiBreakerThreshold, osrsApiBreakerCooldown,
+                clusterEnabled, clusterInstanceId, clusterPartitions, clusterHeartbeat, clusterLeaseTtl,
+                levelUpDigestWindow);
         if (!config.hasDiscordToken()) {
             LOGGER.error("Discord token missing. Set discord-token, discord_token, or DISCORD_TOKEN to start the bot.");
         }
         LOGGER.info(
-                "Loaded env config: discord token from {}, superuser set: {}, leaderboard interval: {}, poll interval: {}, data dir: {}, health port: {}, environment: {}, osrs api url: {}",
+                "Loaded env config: discord token from {}, superuser set: {}, leaderboard interval: {}, poll interval: {}, data dir: {}, health port: {}, environment: {}, osrs api url: {}, player journal: {}, player flush window: {}, storage backend: {}, player format: {}, xp history retention: {}, xp history downsample after: {}, scan concurrency: {}, scan batch size: {}, scan deadline: {}, poll min interval: {}, poll max interval: {}, poll budget per minute: {}, hiscore cache ttl: {}, hiscore cache stale: {}, hiscore cache max size: {}, hiscore rate per second: {}, hiscore rate burst: {}, osrs api connect timeout: {}, osrs api request timeout: {}, osrs api retries: {}, osrs api breaker threshold: {}, osrs api breaker cooldown: {}, cluster enabled: {}, cluster instance id: {}, cluster partitions: {}, cluster heartbeat: {}, cluster lease ttl: {}, level-up digest window: {}",
                 tokenEnv.map(ResolvedEnv::key).orElse("missing"),
                 !superuser.isBlank(),
                 leaderboardInterval,
@@ -63,7 +181,35 @@ public record EnvConfig(
                 dataDir.toAbsolutePath(),
                 healthPort,
                 environment.isBlank() ? "not set" : environment,
-                osrsApiUrl
+                osrsApiUrl,
+                playerJournal,
+                playerFlushWindow,
+                storageBackend,
+                playerFormat,
+                xpHistoryRetention,
+                xpHistoryDownsampleAfter,
+                scanConcurrency,
+                scanBatchSize,
+                scanDeadline,
+                pollMinInterval,
+                pollMaxInterval,
+                pollBudgetPerMinute,
+                hiscoreCacheTtl,
+                hiscoreCacheStale,
+                hiscoreCacheMaxSize,
+                hiscoreRatePerSecond,
+                hiscoreRateBurst,
+                osrsApiConnectTimeout,
+                osrsApiRequestTimeout,
+                osrsApiRetries,
+                osrsApiBreakerThreshold,
+                osrsApiBreakerCooldown,
+                clusterEnabled,
+                clusterInstanceId,
+                clusterPartitions,
+                clusterHeartbeat,
+                clusterLeaseTtl,
+                levelUpDigestWindow
         );
         return config;
     }
@@ -72,6 +218,33 @@ public record EnvConfig(
         return discordToken != null && !discordToken.isBlank();
     }
 
+    /**
+     * Build an instance ID from the host name, so it survives restarts and the
+     * instance finds its own XP history again. Processes sharing a host need an
+     * explicit {@code CLUSTER_INSTANCE_ID} each.
+     *
+     * @return default cluster instance ID
+     */
+    private static String defaultInstanceId() {
+        String host;
+        try {
+            host = java.net.InetAddress.getLocalHost().getHostName();
+        } catch (java.io.IOException e) {
+            host = "localhost";
+        }
+        return sanitizeInstanceId(host);
+    }
+
+    /**
+     * Make an instance ID safe to use in lease file names.
+     *
+     * @param instanceId configured instance ID
+     * @return sanitized instance ID
+     */
+    private static String sanitizeInstanceId(String instanceId) {
+        return instanceId.trim().replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
     /**
      * Resolve the first non-blank environment variable from a primary or fallback key.
      *
@@ -150,7 +323,7 @@ public record EnvConfig(
     }
 
     /**
-     * Parse a duration from env variables, supporting seconds or s/m/h suffixes.
+     * Parse a duration from env variables, supporting seconds or s/m/h/d suffixes.
      *
      * @param env environment map
      * @param keys env keys to try
@@ -176,6 +349,9 @@ public record EnvConfig(
             if (normalized.endsWith("h")) {
                 return Duration.ofHours(Long.parseLong(normalized.substring(0, normalized.length() - 1)));
             }
+            if (normalized.endsWith("d")) {
+                return Duration.ofDays(Long.parseLong(normalized.substring(0, normalized.length() - 1)));
+            }
             return Duration.parse(value);
         } catch (Exception e) {
             LOGGER.warn("Invalid duration for {} ({}). Using default {}", String.join("/", keys), value, defaultValue, e);
@@ -183,6 +359,31 @@ public record EnvConfig(
         }
     }
 
+    private static boolean parseBoolean(Map<String, String> env, boolean defaultValue, String... keys) {
+        String value = firstEnvValue(env, keys).orElse("");
+        if (value.isBlank()) {
+            return defaultValue;
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "true", "yes", "on", "1" -> true;
+            case "false", "no", "off", "0" -> false;
+            default -> {
+                LOGGER.warn("Invalid boolean for {} ({}). Using default {}", String.join("/", keys), value, defaultValue);
+                yield defaultValue;
+            }
+        };
+    }
+
+    private static String parseChoice(Map<String, String> env, String defaultValue, Set<String> allowed, String... keys) {
+        String value = firstEnvValue(env, keys).orElse(defaultValue).trim().toLowerCase(Locale.ROOT);
+        if (allowed.contains(value)) {
+            return value;
+        }
+        LOGGER.warn("Invalid value for {} ({}). Using default {}", String.join("/", keys), value, defaultValue);
+        return defaultValue;
+    }
+
     private static int parsePort(Map<String, String> env, int defaultValue, String... keys) {
         String value = firstEnvValue(env, keys).orElse("");
         if (value.isBlank()) {
@@ -200,6 +401,40 @@ public record EnvConfig(
         }
     }
 
+    private static int parsePositiveInt(Map<String, String> env, int defaultValue, String... keys) {
+        String value = firstEnvValue(env, keys).orElse("");
+        if (value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed <= 0) {
+                throw new IllegalArgumentException("Value must be positive");
+            }
+            return parsed;
+        } catch (Exception e) {
+            LOGGER.warn("Invalid number for {} ({}). Using default {}", String.join("/", keys), value, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
+    private static int parseNonNegativeInt(Map<String, String> env, int defaultValue, String... keys) {
+        String value = firstEnvValue(env, keys).orElse("");
+        if (value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Value must not be negative");
+            }
+            return parsed;
+        } catch (Exception e) {
+            LOGGER.warn("Invalid number for {} ({}). Using default {}", String.join("/", keys), value, defaultValue, e);
+            return defaultValue;
+        }
+    }
+
     private record ResolvedEnv(String key, String value) {
     }
 }
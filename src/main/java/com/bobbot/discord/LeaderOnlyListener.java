@@ -0,0 +1,33 @@
+package com.bobbot.discord;
+
+import com.bobbot.cluster.ClusterCoordinator;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+
+/**
+ * Forwards Discord events to a listener only while this instance is the
+ * cluster leader, so commands and messages are answered exactly once when
+ * several instances share a bot token.
+ */
+public class LeaderOnlyListener implements EventListener {
+    private final EventListener delegate;
+    private final ClusterCoordinator cluster;
+
+    /**
+     * Wrap a listener.
+     *
+     * @param delegate listener receiving events on the leader
+     * @param cluster cluster coordinator
+     */
+    public LeaderOnlyListener(EventListener delegate, ClusterCoordinator cluster) {
+        this.delegate = delegate;
+        this.cluster = cluster;
+    }
+
+    @Override
+    public void onEvent(GenericEvent event) {
+        if (cluster.isLeader()) {
+            delegate.onEvent(event);
+        }
+    }
+}
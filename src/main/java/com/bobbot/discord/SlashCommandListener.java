@@ -2,8 +2,10 @@ package com.bobbot.discord;
 
 import com.bobbot.config.EnvConfig;
 import com.bobbot.osrs.OsrsXpTable;
+import com.bobbot.osrs.PlayerStats;
 import com.bobbot.osrs.Skill;
 import com.bobbot.osrs.SkillStat;
+import com.bobbot.osrs.XpAnalytics;
 import com.bobbot.service.AiService;
 import com.bobbot.service.ConfigService;
 import com.bobbot.service.HealthService;
@@ -381,7 +383,8 @@ public class SlashCommandListener extends ListenerAdapter {
                 } else {
                     eb.addField("⬆️ Gained", "`--`", true);
                 }
-                eb.addBlankField(true);
+                XpAnalytics.Result analytics = XpAnalytics.compute(PlayerStats.of(stats).copyXp(), 1);
+                eb.addField("⚔️ Combat", String.valueOf(analytics.combatLevel(0)), true);
 
                 for (SkillStat stat : stats) {
                     if (stat.skill().isOverall()) continue;
@@ -409,6 +412,9 @@ public class SlashCommandListener extends ListenerAdapter {
                 if (targetStat.level() < 99 && targetStat.level() > 0) {
                     long xpToNext = OsrsXpTable.xpToNextLevel(targetStat.level(), targetStat.xp());
                     eb.addField("Next Level In", String.format("%,d XP", xpToNext), true);
+                    eb.addField("Progress to 99", String.format("%.1f%%", XpAnalytics.percentTo99(targetStat.xp())), true);
+                } else if (targetStat.level() >= 99) {
+                    eb.addField("Virtual Level", String.valueOf(XpAnalytics.virtualLevel(targetStat.xp())), true);
                 }
 
                 String wikiUrl = wikiService.getWikiUrl(targetStat.skill());
@@ -645,8 +651,10 @@ public class SlashCommandListener extends ListenerAdapter {
 
         event.deferReply().queue();
         try {
-            Optional<PriceService.PriceInfo> info1Opt = priceService.lookupPrice(item1);
-            Optional<PriceService.PriceInfo> info2Opt = priceService.lookupPrice(item2);
+            CompletableFuture<Optional<PriceService.PriceInfo>> lookup1 = priceService.lookupPriceAsync(item1);
+            CompletableFuture<Optional<PriceService.PriceInfo>> lookup2 = priceService.lookupPriceAsync(item2);
+            Optional<PriceService.PriceInfo> info1Opt = lookup1.join();
+            Optional<PriceService.PriceInfo> info2Opt = lookup2.join();
 
             if (info1Opt.isEmpty()) {
                 event.getHook().sendMessage("Item '" + item1 + "' not found.").queue();
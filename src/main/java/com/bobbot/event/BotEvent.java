@@ -0,0 +1,14 @@
+package com.bobbot.event;
+
+import java.time.Instant;
+
+/**
+ * Event published on the {@link EventBus} when a scan or leaderboard run
+ * detects something other components may react to.
+ */
+public sealed interface BotEvent permits LevelUpEvent, XpGainEvent, SnapshotRolloverEvent {
+    /**
+     * @return when the event happened
+     */
+    Instant at();
+}
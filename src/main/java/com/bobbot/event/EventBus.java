@@ -0,0 +1,255 @@
+package com.bobbot.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Typed in-process event bus. Every subscriber gets its own bounded
+ * {@link RingBuffer} and consumer thread, so a slow subscriber (for example
+ * Discord delivery) never stretches a scan or holds up the others. What
+ * happens when a subscriber's buffer is full is chosen per subscriber.
+ * Batched subscribers receive everything published within a window at once.
+ */
+public class EventBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventBus.class);
+    private static final long POLL_MILLIS = 200L;
+
+    /**
+     * Default buffer capacity for a subscriber.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * What a publisher does when a subscriber's buffer is full.
+     */
+    public enum Backpressure {
+        /** Wait for a free slot, slowing the publisher down. */
+        BLOCK,
+        /** Evict the oldest queued event. */
+        DROP_OLDEST,
+        /** Discard the new event. */
+        DROP_NEWEST
+    }
+
+    /**
+     * Register a subscriber with its own buffer and consumer thread.
+     *
+     * @param name subscriber name for logs, thread names and health output
+     * @param type event type to receive, including subtypes
+     * @param capacity buffer capacity; rounded up to a power of two
+     * @param backpressure behaviour when the buffer is full
+     * @param handler receives events on the subscriber's thread
+     * @param <E> event type
+     */
+    public <E extends BotEvent> void subscribe(String name, Class<E> type, int capacity, Backpressure backpressure,
+                                               Consumer<? super E> handler) {
+        subscribeBatched(name, type, capacity, backpressure, Duration.ZERO, batch -> batch.forEach(handler));
+    }
+
+    /**
+     * Register a subscriber that receives events in batches. A batch starts with the first
+     * event after the previous one was handled and collects everything published within the
+     * window, up to the buffer capacity.
+     *
+     * @param name subscriber name for logs, thread names and health output
+     * @param type event type to receive, including subtypes
+     * @param capacity buffer capacity and maximum batch size; rounded up to a power of two
+     * @param backpressure behaviour when the buffer is full
+     * @param window how long to collect events after the first one; zero hands over one event at a time
+     * @param handler receives each batch, oldest event first, on the subscriber's thread
+     * @param <E> event type
+     */
+    public <E extends BotEvent> void subscribeBatched(String name, Class<E> type, int capacity, Backpressure backpressure,
+                                                      Duration window, Consumer<? super List<E>> handler) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        Subscription<E> subscription = new Subscription<>(name, type, new RingBuffer<>(capacity), backpressure,
+                Math.max(0L, window.toNanos()), handler);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+    }
+
+    /**
+     * Hand an event to every subscriber of its type. Only blocks for subscribers using
+     * {@link Backpressure#BLOCK} whose buffer is full. Events published after {@link #close()} are dropped.
+     *
+     * @param event event to publish
+     */
+    public void publish(BotEvent event) {
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * @return one-line description of every subscriber's queue for health output
+     */
+    public String describe() {
+        if (subscriptions.isEmpty()) {
+            return "no subscribers";
+        }
+        List<String> parts = new ArrayList<>();
+        for (Subscription<?> subscription : subscriptions) {
+            parts.add(subscription.describe());
+        }
+        return String.join("; ", parts);
+    }
+
+    /**
+     * Stop accepting events and let every subscriber drain its buffer, waiting up to the timeout in total.
+     *
+     * @param timeoutMillis maximum wait in milliseconds
+     */
+    public void close(long timeoutMillis) {
+        closed = true;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Subscription<?> subscription : subscriptions) {
+            try {
+                subscription.thread.join(Math.max(1L, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (subscription.thread.isAlive()) {
+                LOGGER.warn("Event subscriber {} did not drain before shutdown; {} events left",
+                        subscription.name, subscription.buffer.size());
+            }
+        }
+    }
+
+    private final class Subscription<E extends BotEvent> {
+        private final String name;
+        private final Class<E> type;
+        private final RingBuffer<E> buffer;
+        private final Backpressure backpressure;
+        private final long windowNanos;
+        private final Consumer<? super List<E>> handler;
+        private final Thread thread;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        private Subscription(String name, Class<E> type, RingBuffer<E> buffer, Backpressure backpressure,
+                             long windowNanos, Consumer<? super List<E>> handler) {
+            this.name = name;
+            this.type = type;
+            this.buffer = buffer;
+            this.backpressure = backpressure;
+            this.windowNanos = windowNanos;
+            this.handler = handler;
+            this.thread = new Thread(this::run, "event-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(BotEvent event) {
+            if (!type.isInstance(event)) {
+                return;
+            }
+            E typed = type.cast(event);
+            boolean accepted = switch (backpressure) {
+                case BLOCK -> offerBlocking(typed);
+                case DROP_OLDEST -> {
+                    if (closed) {
+                        yield false;
+                    }
+                    if (buffer.overwrite(typed) != null) {
+                        dropped.incrementAndGet();
+                    }
+                    yield true;
+                }
+                case DROP_NEWEST -> !closed && buffer.offer(typed);
+            };
+            if (!accepted) {
+                long total = dropped.incrementAndGet();
+                if (Long.bitCount(total) == 1) {
+                    LOGGER.warn("Event subscriber {} dropped {} events so far", name, total);
+                }
+            }
+        }
+
+        private boolean offerBlocking(E event) {
+            try {
+                while (!closed) {
+                    if (buffer.offer(event, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        private void run() {
+            while (true) {
+                E first;
+                try {
+                    first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                List<E> batch = new ArrayList<>();
+                batch.add(first);
+                boolean interrupted = windowNanos > 0L && collect(batch);
+                try {
+                    handler.accept(batch);
+                    delivered.addAndGet(batch.size());
+                } catch (RuntimeException e) {
+                    failed.addAndGet(batch.size());
+                    LOGGER.warn("Event subscriber {} failed on {} {}", name, batch.size(),
+                            first.getClass().getSimpleName(), e);
+                }
+                if (interrupted) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Add events to the batch until the window closes or the batch is as large as the buffer.
+         * Once the bus is closed, only events already queued are taken.
+         *
+         * @return true if the thread was interrupted
+         */
+        private boolean collect(List<E> batch) {
+            long deadline = System.nanoTime() + windowNanos;
+            try {
+                while (batch.size() < buffer.capacity()) {
+                    long remaining = closed ? 0L : deadline - System.nanoTime();
+                    E next = buffer.poll(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        return false;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                return true;
+            }
+            return false;
+        }
+
+        private String describe() {
+            return String.format(Locale.US, "%s %d/%d queued, %,d delivered, %,d dropped, %,d failed",
+                    name, buffer.size(), buffer.capacity(), delivered.get(), dropped.get(), failed.get());
+        }
+    }
+}
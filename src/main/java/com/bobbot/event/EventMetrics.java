@@ -0,0 +1,48 @@
+package com.bobbot.event;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event bus subscriber that keeps running totals of level-ups, XP gains and
+ * snapshot rollovers for health output.
+ */
+public class EventMetrics {
+    private final LongAdder levelUps = new LongAdder();
+    private final LongAdder levelsGained = new LongAdder();
+    private final LongAdder xpSamples = new LongAdder();
+    private final LongAdder xpGained = new LongAdder();
+    private final LongAdder rollovers = new LongAdder();
+    private volatile Instant lastLevelUpAt;
+
+    /**
+     * Count an event.
+     *
+     * @param event published event
+     */
+    public void record(BotEvent event) {
+        switch (event) {
+            case LevelUpEvent levelUp -> {
+                levelUps.increment();
+                levelsGained.add(levelUp.levelsGained());
+                lastLevelUpAt = levelUp.at();
+            }
+            case XpGainEvent xpGain -> {
+                xpSamples.increment();
+                xpGained.add(xpGain.xpGained());
+            }
+            case SnapshotRolloverEvent rollover -> rollovers.increment();
+        }
+    }
+
+    /**
+     * @return one-line summary for health output
+     */
+    public String describe() {
+        Instant last = lastLevelUpAt;
+        return String.format(Locale.US, "%,d level-ups (+%,d levels, last %s), %,d XP samples (+%,d XP), %,d snapshot rollovers",
+                levelUps.sum(), levelsGained.sum(), last == null ? "never" : last, xpSamples.sum(), xpGained.sum(),
+                rollovers.sum());
+    }
+}
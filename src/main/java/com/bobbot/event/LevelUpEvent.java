@@ -0,0 +1,24 @@
+package com.bobbot.event;
+
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.PlayerRecord;
+
+import java.time.Instant;
+
+/**
+ * A linked player's total level went up.
+ *
+ * @param discordUserId Discord user ID
+ * @param previous player record before the new stats were applied
+ * @param stats new hiscore stats
+ * @param at detection time
+ */
+public record LevelUpEvent(String discordUserId, PlayerRecord previous, PlayerStats stats, Instant at) implements BotEvent {
+    /**
+     * @return total levels gained since the previous record
+     */
+    public int levelsGained() {
+        return stats.level(Skill.TOTAL) - previous.getLastTotalLevel();
+    }
+}
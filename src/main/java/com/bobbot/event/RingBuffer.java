@@ -0,0 +1,153 @@
+package com.bobbot.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded FIFO over a power-of-two array, with blocking and overwriting inserts.
+ *
+ * @param <T> element type
+ */
+final class RingBuffer<T> {
+    private final Object[] slots;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private long head;
+    private long tail;
+
+    /**
+     * Create a buffer.
+     *
+     * @param capacity minimum capacity; rounded up to a power of two
+     */
+    RingBuffer(int capacity) {
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(1, Math.min(capacity, 1 << 30) - 1)));
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return number of slots
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return number of queued elements
+     */
+    int size() {
+        lock.lock();
+        try {
+            return (int) (tail - head);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert an element, waiting up to the timeout for a free slot.
+     *
+     * @param item element
+     * @param timeout maximum wait
+     * @param unit timeout unit
+     * @return true if the element was inserted
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (tail - head == slots.length) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            push(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert an element without waiting.
+     *
+     * @param item element
+     * @return true if the element was inserted, false if the buffer was full
+     */
+    boolean offer(T item) {
+        lock.lock();
+        try {
+            if (tail - head == slots.length) {
+                return false;
+            }
+            push(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insert an element, evicting the oldest one if the buffer is full.
+     *
+     * @param item element
+     * @return the evicted element, or null
+     */
+    T overwrite(T item) {
+        lock.lock();
+        try {
+            T evicted = null;
+            if (tail - head == slots.length) {
+                evicted = pop();
+            }
+            push(item);
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the oldest element, waiting up to the timeout for one.
+     *
+     * @param timeout maximum wait
+     * @param unit timeout unit
+     * @return the element, or null on timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (tail == head) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return pop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void push(T item) {
+        slots[(int) (tail++ & mask)] = item;
+        notEmpty.signal();
+    }
+
+    @SuppressWarnings("unchecked")
+    private T pop() {
+        int index = (int) (head++ & mask);
+        T item = (T) slots[index];
+        slots[index] = null;
+        notFull.signal();
+        return item;
+    }
+}
@@ -0,0 +1,22 @@
+package com.bobbot.event;
+
+import java.time.Instant;
+
+/**
+ * Player snapshots used as a baseline for gains were moved forward.
+ *
+ * @param kind which snapshot rolled over
+ * @param at new snapshot time
+ * @param players number of players whose snapshot moved
+ */
+public record SnapshotRolloverEvent(Kind kind, Instant at, int players) implements BotEvent {
+    /**
+     * Snapshot kinds.
+     */
+    public enum Kind {
+        /** Baseline for the deltas on the next leaderboard post. */
+        LEADERBOARD,
+        /** Baseline for weekly gains, taken at the start of each week. */
+        WEEKLY
+    }
+}
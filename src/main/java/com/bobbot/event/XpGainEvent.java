@@ -0,0 +1,25 @@
+package com.bobbot.event;
+
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.PlayerRecord;
+
+import java.time.Instant;
+
+/**
+ * New hiscore stats were fetched for a player and differ from the stored ones,
+ * or the player was just linked.
+ *
+ * @param discordUserId Discord user ID
+ * @param previous player record before the new stats were applied, or null for a new link
+ * @param stats new hiscore stats
+ * @param at sample time
+ */
+public record XpGainEvent(String discordUserId, PlayerRecord previous, PlayerStats stats, Instant at) implements BotEvent {
+    /**
+     * @return total XP gained since the previous record, or 0 for a new link
+     */
+    public long xpGained() {
+        return previous == null ? 0L : Math.max(0L, stats.xp(Skill.TOTAL) - previous.getLastTotalXp());
+    }
+}
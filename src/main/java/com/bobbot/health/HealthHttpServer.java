@@ -88,7 +88,7 @@ public class HealthHttpServer {
                 return;
             }
             String body = jdaRef.get().map(healthService::buildHealthReport)
-                    .orElse("BobBot health:\n- discord status: not-ready");
+                    .orElseGet(healthService::buildOfflineReport);
             byte[] payload = body.getBytes(StandardCharsets.UTF_8);
             exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
             exchange.sendResponseHeaders(200, payload.length);
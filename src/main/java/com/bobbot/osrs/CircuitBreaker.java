@@ -0,0 +1,116 @@
+package com.bobbot.osrs;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Consecutive-failure circuit breaker for one osrs-api endpoint. After enough
+ * failures in a row the circuit opens and calls fail fast; once the cooldown
+ * has passed a single probe call is let through, and its outcome either closes
+ * the circuit or opens it for another cooldown.
+ */
+public class CircuitBreaker {
+    private final String name;
+    private final int failureThreshold;
+    private final Duration cooldown;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private long rejected;
+
+    /**
+     * Circuit states.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Create a circuit breaker.
+     *
+     * @param name endpoint name used in messages
+     * @param failureThreshold consecutive failures that open the circuit
+     * @param cooldown how long the circuit stays open before a probe is allowed
+     */
+    public CircuitBreaker(String name, int failureThreshold, Duration cooldown) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldown = cooldown;
+    }
+
+    /**
+     * Ask whether a call may go ahead.
+     *
+     * @return true if the call may be made; false if it should fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= cooldown.toNanos()) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Record a successful call, closing the circuit.
+     */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Record a failed call, opening the circuit when the threshold is reached
+     * or when a half-open probe fails.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record a call that ended without an outcome, such as an interrupted one.
+     * A half-open probe goes back to open so the next call can probe again.
+     */
+    public synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    /**
+     * @return current state
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return endpoint name
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return one-line description for health output
+     */
+    public synchronized String describe() {
+        if (state == State.OPEN) {
+            long remaining = Math.max(0L, cooldown.toNanos() - (System.nanoTime() - openedAtNanos));
+            return String.format(Locale.US, "%s open (%d failures, probe in %ds, %,d rejected)",
+                    name, consecutiveFailures, Duration.ofNanos(remaining).toSeconds(), rejected);
+        }
+        return String.format(Locale.US, "%s %s (%d failures, %,d rejected)",
+                name, state.name().toLowerCase(Locale.ROOT).replace('_', '-'), consecutiveFailures, rejected);
+    }
+}
@@ -1,5 +1,9 @@
 package com.bobbot.osrs;
 
+import com.bobbot.util.FormatUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -7,17 +11,61 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Client for OSRS hiscores, now delegating to the Node.js API.
+ * Lookups are single-flight per normalized username: callers asking for a
+ * player whose lookup is already in flight wait for that result instead of
+ * issuing another request.
+ * Fetched stats are kept in a bounded LRU cache. Entries younger than the TTL
+ * are served as-is; entries past the TTL but within the stale window are
+ * served while a background refresh runs. Callers that need fresher data pass
+ * a maximum age instead.
  */
 public class HiscoreClient {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HiscoreClient.class);
+
     private final OsrsApiClient apiClient;
+    private final Duration cacheTtl;
+    private final Duration staleWindow;
+    private final int cacheMaxSize;
+    private final Map<String, CachedStats> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<PlayerStats>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedLookups = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
 
-    public HiscoreClient(OsrsApiClient apiClient) {
+    /**
+     * Create a hiscore client.
+     *
+     * @param apiClient osrs-api client
+     * @param cacheTtl how long fetched stats are served without a refresh; zero disables the cache
+     * @param staleWindow how long past the TTL stats may still be served while they are refreshed
+     * @param cacheMaxSize maximum number of players kept in the cache
+     */
+    public HiscoreClient(OsrsApiClient apiClient, Duration cacheTtl, Duration staleWindow, int cacheMaxSize) {
         this.apiClient = apiClient;
+        this.cacheTtl = cacheTtl.isNegative() ? Duration.ZERO : cacheTtl;
+        this.staleWindow = staleWindow.isNegative() ? Duration.ZERO : staleWindow;
+        this.cacheMaxSize = Math.max(1, cacheMaxSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStats> eldest) {
+                return size() > HiscoreClient.this.cacheMaxSize;
+            }
+        };
     }
 
     /**
@@ -29,10 +77,11 @@ public class HiscoreClient {
      * @throws InterruptedException on interrupted HTTP requests
      */
     public SkillStat fetchOverallStat(String username) throws IOException, InterruptedException {
-        return fetchSkillStats(username).stream()
-                .filter(s -> s.skill().isOverall())
-                .findFirst()
-                .orElseThrow(() -> new IOException("Overall stat missing for " + username));
+        SkillStat overall = fetchPlayerStats(username).stat(Skill.TOTAL);
+        if (overall == null) {
+            throw new IOException("Overall stat missing for " + username);
+        }
+        return overall;
     }
 
     /**
@@ -57,7 +106,9 @@ public class HiscoreClient {
      */
     public int fetchStatusCode(String username) throws IOException, InterruptedException {
         try {
-            fetchOverallStat(username);
+            if (!fetchPlayerStats(username, Duration.ZERO).has(Skill.TOTAL)) {
+                throw new IOException("Overall stat missing for " + username);
+            }
             return 200;
         } catch (IOException e) {
             if (e.getMessage().contains("404") || e.getMessage().contains("not found")) return 404;
@@ -74,6 +125,286 @@ public class HiscoreClient {
      * @throws InterruptedException on interrupted HTTP requests
      */
     public List<SkillStat> fetchSkillStats(String username) throws IOException, InterruptedException {
-        return apiClient.fetchPlayerStats(username);
+        return fetchPlayerStats(username).toSkillStats();
+    }
+
+    /**
+     * Fetch a player's hiscore data as dense per-skill arrays, serving cached
+     * stats while they are within the TTL and stale stats while they are refreshed.
+     *
+     * @param username OSRS username
+     * @return stats indexed by hiscore line
+     * @throws IOException on HTTP or parse failures
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public PlayerStats fetchPlayerStats(String username) throws IOException, InterruptedException {
+        String key = FormatUtils.normalizeOsrsUsername(username);
+        CachedStats cached = cached(key);
+        if (cached != null) {
+            Duration age = cached.age();
+            if (age.compareTo(cacheTtl) <= 0) {
+                cacheHits.increment();
+                return cached.stats();
+            }
+            if (age.compareTo(cacheTtl.plus(staleWindow)) <= 0) {
+                staleHits.increment();
+                revalidate(username, key);
+                return cached.stats();
+            }
+        }
+        cacheMisses.increment();
+        return load(username, key);
+    }
+
+    /**
+     * Fetch a player's hiscore data, accepting cached stats only up to the given age.
+     *
+     * @param username OSRS username
+     * @param maxAge oldest cached stats the caller accepts; zero always fetches
+     * @return stats indexed by hiscore line
+     * @throws IOException on HTTP or parse failures
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public PlayerStats fetchPlayerStats(String username, Duration maxAge) throws IOException, InterruptedException {
+        String key = FormatUtils.normalizeOsrsUsername(username);
+        PlayerStats cached = cachedWithin(key, maxAge);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+        cacheMisses.increment();
+        return load(username, key);
+    }
+
+    /**
+     * @return how long fetched stats are served without a refresh
+     */
+    public Duration cacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * @return cache and request coalescing counters
+     */
+    public CacheStats cacheStats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return new CacheStats(size, cacheMaxSize, cacheTtl, cacheHits.sum(), staleHits.sum(), cacheMisses.sum(),
+                coalescedLookups.sum());
+    }
+
+    private PlayerStats load(String username, String key) throws IOException, InterruptedException {
+        CompletableFuture<PlayerStats> lookup = new CompletableFuture<>();
+        CompletableFuture<PlayerStats> existing = inFlight.putIfAbsent(key, lookup);
+        if (existing != null) {
+            coalescedLookups.increment();
+            return await(username, existing);
+        }
+        try {
+            PlayerStats stats = apiClient.fetchPlayerStats(username);
+            store(key, stats);
+            lookup.complete(stats);
+            return stats;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, lookup);
+        }
+    }
+
+    /**
+     * Fetch hiscore data for several players in as few requests as possible,
+     * using cached stats that are within the TTL.
+     *
+     * @param usernames OSRS usernames
+     * @return stats and per-player errors keyed by the requested username
+     * @throws IOException if a batch request fails as a whole
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public OsrsApiClient.StatsBatch fetchPlayerStatsBatch(Collection<String> usernames) throws IOException, InterruptedException {
+        return fetchPlayerStatsBatch(usernames, cacheTtl);
+    }
+
+    /**
+     * Fetch hiscore data for several players, accepting cached stats only up to the given age.
+     *
+     * @param usernames OSRS usernames
+     * @param maxAge oldest cached stats the caller accepts; zero always fetches
+     * @return stats and per-player errors keyed by the requested username
+     * @throws IOException if a batch request fails as a whole
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public OsrsApiClient.StatsBatch fetchPlayerStatsBatch(Collection<String> usernames, Duration maxAge)
+            throws IOException, InterruptedException {
+        Map<String, PlayerStats> cachedStats = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String username : usernames) {
+            PlayerStats cached = cachedWithin(FormatUtils.normalizeOsrsUsername(username), maxAge);
+            if (cached != null) {
+                cacheHits.increment();
+                cachedStats.put(username, cached);
+            } else {
+                cacheMisses.increment();
+                missing.add(username);
+            }
+        }
+        if (missing.isEmpty()) {
+            return new OsrsApiClient.StatsBatch(cachedStats, Map.of());
+        }
+        OsrsApiClient.StatsBatch fetched = loadBatch(missing);
+        if (cachedStats.isEmpty()) {
+            return fetched;
+        }
+        cachedStats.putAll(fetched.stats());
+        return new OsrsApiClient.StatsBatch(cachedStats, fetched.errors());
+    }
+
+    private OsrsApiClient.StatsBatch loadBatch(Collection<String> usernames) throws IOException, InterruptedException {
+        Map<String, CompletableFuture<PlayerStats>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<PlayerStats>> joined = new LinkedHashMap<>();
+        for (String username : usernames) {
+            if (owned.containsKey(username) || joined.containsKey(username)) {
+                continue;
+            }
+            CompletableFuture<PlayerStats> lookup = new CompletableFuture<>();
+            CompletableFuture<PlayerStats> existing = inFlight.putIfAbsent(FormatUtils.normalizeOsrsUsername(username), lookup);
+            if (existing != null) {
+                coalescedLookups.increment();
+                joined.put(username, existing);
+            } else {
+                owned.put(username, lookup);
+            }
+        }
+        try {
+            Map<String, PlayerStats> stats = new HashMap<>();
+            Map<String, String> errors = new HashMap<>();
+            if (!owned.isEmpty()) {
+                OsrsApiClient.StatsBatch fetched = apiClient.fetchPlayerStatsBatch(owned.keySet());
+                stats.putAll(fetched.stats());
+                errors.putAll(fetched.errors());
+                for (Map.Entry<String, CompletableFuture<PlayerStats>> entry : owned.entrySet()) {
+                    PlayerStats playerStats = fetched.stats().get(entry.getKey());
+                    if (playerStats != null) {
+                        store(FormatUtils.normalizeOsrsUsername(entry.getKey()), playerStats);
+                        entry.getValue().complete(playerStats);
+                    } else {
+                        entry.getValue().completeExceptionally(new IOException(fetched.errors().get(entry.getKey())));
+                    }
+                }
+            }
+            for (Map.Entry<String, CompletableFuture<PlayerStats>> entry : joined.entrySet()) {
+                try {
+                    stats.put(entry.getKey(), await(entry.getKey(), entry.getValue()));
+                } catch (IOException e) {
+                    errors.put(entry.getKey(), e.getMessage());
+                }
+            }
+            return new OsrsApiClient.StatsBatch(stats, errors);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            owned.values().forEach(lookup -> lookup.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach((username, lookup) -> inFlight.remove(FormatUtils.normalizeOsrsUsername(username), lookup));
+        }
+    }
+
+    /**
+     * @return number of lookups served by waiting on another caller's in-flight request
+     */
+    public long coalescedLookups() {
+        return coalescedLookups.sum();
+    }
+
+    private CachedStats cached(String key) {
+        if (cacheTtl.isZero()) {
+            return null;
+        }
+        synchronized (cache) {
+            CachedStats cached = cache.get(key);
+            if (cached != null && cached.age().compareTo(cacheTtl.plus(staleWindow)) > 0) {
+                cache.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private PlayerStats cachedWithin(String key, Duration maxAge) {
+        if (!maxAge.isPositive()) {
+            return null;
+        }
+        CachedStats cached = cached(key);
+        return cached != null && cached.age().compareTo(maxAge) <= 0 ? cached.stats() : null;
+    }
+
+    private void store(String key, PlayerStats stats) {
+        if (cacheTtl.isZero()) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(key, new CachedStats(stats, System.nanoTime()));
+        }
+    }
+
+    private void revalidate(String username, String key) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        Thread.ofVirtual().name("hiscore-refresh").start(() -> {
+            HiscoreRateLimiter.setCurrentLane(HiscoreRateLimiter.Lane.BACKGROUND);
+            try {
+                load(username, key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Background hiscore refresh for {} failed: {}", username, e.getMessage());
+            }
+        });
+    }
+
+    private static PlayerStats await(String username, CompletableFuture<PlayerStats> lookup)
+            throws IOException, InterruptedException {
+        try {
+            return lookup.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Shared lookup for " + username + " failed", cause);
+        }
+    }
+
+    private record CachedStats(PlayerStats stats, long fetchedAtNanos) {
+        Duration age() {
+            return Duration.ofNanos(System.nanoTime() - fetchedAtNanos);
+        }
+    }
+
+    /**
+     * Hiscore cache counters.
+     *
+     * @param size players currently cached
+     * @param maxSize maximum players kept
+     * @param ttl how long stats are served without a refresh
+     * @param hits lookups served from fresh cache entries
+     * @param staleHits lookups served from stale entries while they were refreshed
+     * @param misses lookups that had to wait for the osrs-api
+     * @param coalesced lookups that shared another caller's in-flight request
+     */
+    public record CacheStats(int size, int maxSize, Duration ttl, long hits, long staleHits, long misses, long coalesced) {
+        /**
+         * @return share of lookups served from the cache, between 0 and 1
+         */
+        public double hitRate() {
+            long total = hits + staleHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + staleHits) / total;
+        }
     }
 }
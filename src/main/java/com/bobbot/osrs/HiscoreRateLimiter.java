@@ -0,0 +1,266 @@
+package com.bobbot.osrs;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token-bucket limiter for hiscore requests to the osrs-api. Every upstream
+ * player lookup costs one token; tokens refill at a fixed rate up to a burst
+ * size. Waiting callers are served in strict lane order (interactive, then AI
+ * tools, then background scans) and first-come, first-served within a lane,
+ * so a large scan queues behind a user's command instead of starving it.
+ * A request larger than the burst may take the bucket into debt, which later
+ * callers wait out. A caller whose request is abandoned while it waits leaves
+ * the queue without taking any tokens.
+ */
+public class HiscoreRateLimiter {
+    private static final ThreadLocal<Lane> CURRENT_LANE = new ThreadLocal<>();
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition changed = lock.newCondition();
+    private final EnumMap<Lane, ArrayDeque<Waiter>> queues = new EnumMap<>(Lane.class);
+    private final EnumMap<Lane, LaneStats> stats = new EnumMap<>(Lane.class);
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Priority lanes, highest first.
+     */
+    public enum Lane {
+        INTERACTIVE,
+        AI,
+        BACKGROUND
+    }
+
+    /**
+     * Create a rate limiter.
+     *
+     * @param permitsPerSecond sustained hiscore lookups per second; zero or less disables limiting
+     * @param burst lookups that may be made at once after an idle period
+     */
+    public HiscoreRateLimiter(double permitsPerSecond, int burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            stats.put(lane, new LaneStats());
+        }
+    }
+
+    /**
+     * @return a limiter that never waits
+     */
+    public static HiscoreRateLimiter unlimited() {
+        return new HiscoreRateLimiter(0, 1);
+    }
+
+    /**
+     * Set the lane used for hiscore requests made by the current thread.
+     *
+     * @param lane priority lane
+     */
+    public static void setCurrentLane(Lane lane) {
+        CURRENT_LANE.set(lane);
+    }
+
+    /**
+     * Reset the current thread to the default interactive lane.
+     */
+    public static void clearCurrentLane() {
+        CURRENT_LANE.remove();
+    }
+
+    /**
+     * @return lane for hiscore requests made by the current thread
+     */
+    public static Lane currentLane() {
+        Lane lane = CURRENT_LANE.get();
+        return lane == null ? Lane.INTERACTIVE : lane;
+    }
+
+    /**
+     * @return true if requests are actually limited
+     */
+    public boolean isEnabled() {
+        return permitsPerSecond > 0;
+    }
+
+    /**
+     * Wait for permits in the current thread's lane.
+     *
+     * @param permits number of upstream lookups about to be made
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int permits) throws InterruptedException {
+        acquire(currentLane(), permits);
+    }
+
+    /**
+     * Wait until the bucket has room and no caller ahead of this one is waiting.
+     *
+     * @param lane priority lane
+     * @param permits number of upstream lookups about to be made
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(Lane lane, int permits) throws InterruptedException {
+        acquire(lane, permits, null);
+    }
+
+    /**
+     * Wait like {@link #acquire(Lane, int)}, but leave the queue without taking any
+     * tokens as soon as the caller's request is abandoned.
+     *
+     * @param lane priority lane
+     * @param permits number of upstream lookups about to be made
+     * @param abandoned completes when nobody wants the result any more, or null if the wait cannot be abandoned
+     * @return true once the permits were taken, false if the request was abandoned first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean acquire(Lane lane, int permits, CompletableFuture<?> abandoned) throws InterruptedException {
+        LaneStats laneStats = stats.get(lane);
+        if (!isEnabled()) {
+            laneStats.record(0L);
+            return true;
+        }
+        long start = System.nanoTime();
+        Waiter waiter = new Waiter(Math.max(1, permits));
+        if (abandoned != null) {
+            abandoned.whenComplete((ignored, error) -> wakeWaiters());
+        }
+        lock.lock();
+        try {
+            queues.get(lane).addLast(waiter);
+            try {
+                while (true) {
+                    if (abandoned != null && abandoned.isDone()) {
+                        queues.get(lane).remove(waiter);
+                        changed.signalAll();
+                        return false;
+                    }
+                    refill();
+                    double needed = Math.min(waiter.permits, burst);
+                    if (head() == waiter && tokens >= needed) {
+                        tokens -= waiter.permits;
+                        queues.get(lane).removeFirst();
+                        changed.signalAll();
+                        break;
+                    }
+                    long waitNanos = head() == waiter
+                            ? (long) Math.ceil((needed - tokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1))
+                            : TimeUnit.SECONDS.toNanos(1);
+                    changed.awaitNanos(Math.max(1L, waitNanos));
+                }
+            } catch (InterruptedException e) {
+                queues.get(lane).remove(waiter);
+                changed.signalAll();
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        laneStats.record(System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * @return one-line description of queue depth and wait times per lane for health output
+     */
+    public String describe() {
+        if (!isEnabled()) {
+            return "disabled";
+        }
+        StringBuilder builder = new StringBuilder();
+        lock.lock();
+        try {
+            refill();
+            builder.append(String.format(Locale.US, "%.1f/s, %.0f/%.0f tokens", permitsPerSecond, Math.max(0, tokens), burst));
+            for (Lane lane : Lane.values()) {
+                LaneStats laneStats = stats.get(lane);
+                builder.append(String.format(Locale.US, "; %s %d queued, %,d granted, avg wait %dms, max %dms",
+                        lane.name().toLowerCase(Locale.ROOT), queues.get(lane).size(), laneStats.granted(),
+                        laneStats.averageWaitMillis(), laneStats.maxWaitMillis()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @param lane priority lane
+     * @return callers currently waiting in the lane
+     */
+    public int queueDepth(Lane lane) {
+        lock.lock();
+        try {
+            return queues.get(lane).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void wakeWaiters() {
+        lock.lock();
+        try {
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Waiter head() {
+        for (ArrayDeque<Waiter> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return queue.peekFirst();
+            }
+        }
+        return null;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+    }
+
+    private static final class Waiter {
+        private final int permits;
+
+        Waiter(int permits) {
+            this.permits = permits;
+        }
+    }
+
+    private static final class LaneStats {
+        private long granted;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        synchronized void record(long waitNanos) {
+            granted++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        synchronized long granted() {
+            return granted;
+        }
+
+        synchronized long maxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+        }
+
+        synchronized long averageWaitMillis() {
+            return granted == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / granted);
+        }
+    }
+}
@@ -7,29 +7,115 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Client for the Node.js OSRS API.
+ * Every endpoint has a non-blocking variant returning a CompletableFuture,
+ * built on HttpClient.sendAsync with a dedicated virtual-thread executor;
+ * the blocking methods are thin wrappers that wait on those futures.
+ * Every call has connect and request timeouts. Timeouts, connection failures
+ * and 429/502/503/504 responses are retried with exponential backoff and full
+ * jitter, and each endpoint has its own circuit breaker that fails calls fast
+ * while the API keeps failing. Once the future of a hiscore lookup is done,
+ * including when the caller cancels it, any rate limiter wait, send or retry
+ * still pending for it is dropped, so abandoned scans cost no tokens and send
+ * no requests.
  */
 public class OsrsApiClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(OsrsApiClient.class);
+    private static final int PLAYER_BATCH_MAX = 100;
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 502, 503, 504);
+    private static final Duration RETRY_BASE_DELAY = Duration.ofMillis(250);
+    private static final Duration RETRY_MAX_DELAY = Duration.ofSeconds(4);
     private final String baseUrl;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final PlayerStatsParser statsParser;
+    private final HiscoreRateLimiter rateLimiter;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final int breakerThreshold;
+    private final Duration breakerCooldown;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("osrs-api-", 0).factory());
+    private volatile boolean batchSupported = true;
 
     public OsrsApiClient(String baseUrl) {
+        this(baseUrl, HiscoreRateLimiter.unlimited(), Duration.ofSeconds(5), Duration.ofSeconds(30), 2, 5, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Create a client.
+     *
+     * @param baseUrl base URL of the osrs-api
+     * @param rateLimiter limiter every hiscore lookup waits on
+     * @param connectTimeout timeout for establishing a connection
+     * @param requestTimeout timeout for receiving a response to one attempt
+     * @param maxRetries retries after a failed attempt
+     * @param breakerThreshold consecutive failures that open an endpoint's circuit
+     * @param breakerCooldown how long an open circuit fails fast before a probe call
+     */
+    public OsrsApiClient(String baseUrl, HiscoreRateLimiter rateLimiter, Duration connectTimeout, Duration requestTimeout,
+                         int maxRetries, int breakerThreshold, Duration breakerCooldown) {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.httpClient = HttpClient.newHttpClient();
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(connectTimeout.isPositive() ? connectTimeout : Duration.ofSeconds(5))
+                .build();
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.statsParser = new PlayerStatsParser(objectMapper.getFactory());
+        this.rateLimiter = rateLimiter;
+        this.requestTimeout = requestTimeout.isPositive() ? requestTimeout : Duration.ofSeconds(30);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.breakerThreshold = breakerThreshold;
+        this.breakerCooldown = breakerCooldown;
+    }
+
+    /**
+     * @return one-line description of every endpoint's circuit for health output
+     */
+    public String describeCircuits() {
+        if (breakers.isEmpty()) {
+            return "no calls yet";
+        }
+        return breakers.values().stream()
+                .sorted(Comparator.comparing(CircuitBreaker::name))
+                .map(CircuitBreaker::describe)
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * @return limiter for hiscore lookups
+     */
+    public HiscoreRateLimiter rateLimiter() {
+        return rateLimiter;
     }
 
     public record ApiHealth(String status, long pingMs) {}
@@ -40,6 +126,7 @@ public class OsrsApiClient {
             String url = baseUrl + "/health";
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
+                    .timeout(requestTimeout)
                     .GET()
                     .build();
 
@@ -55,200 +142,435 @@ public class OsrsApiClient {
         }
     }
 
-    public List<SkillStat> fetchPlayerStats(String username) throws IOException, InterruptedException {
-        String url = baseUrl + "/api/player/" + username.replace(" ", "%20");
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
+    /**
+     * Fetch a player's hiscore stats.
+     *
+     * @param username OSRS username
+     * @return stats indexed by hiscore line
+     * @throws IOException on HTTP or parse failures, or if the player is not found
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public PlayerStats fetchPlayerStats(String username) throws IOException, InterruptedException {
+        return await(fetchPlayerStatsAsync(username));
+    }
+
+    /**
+     * Fetch a player's hiscore stats without blocking.
+     *
+     * @param username OSRS username
+     * @return future completed with stats indexed by hiscore line, or failed with an IOException
+     */
+    public CompletableFuture<PlayerStats> fetchPlayerStatsAsync(String username) {
+        CompletableFuture<Void> abandoned = new CompletableFuture<>();
+        return abandonWith(fetchPlayerStatsAsync(username, abandoned), abandoned);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() == 404) {
-            throw new IOException("Player '" + username + "' not found on OSRS hiscores.");
-        }
-        if (response.statusCode() != 200) {
-            throw new IOException("OSRS API lookup failed with status " + response.statusCode());
-        }
-
-        LOGGER.debug("OSRS API response for {}: {}", username, response.body());
-
-        JsonNode root = objectMapper.readTree(response.body());
-        List<SkillStat> stats = new ArrayList<>();
-        
-        JsonNode skillsNode = null;
-        if (root.has("main") && root.get("main").has("skills")) {
-            skillsNode = root.get("main").get("skills");
-        } else if (root.has("skills")) {
-            skillsNode = root.get("skills");
-        }
-        
-        if (skillsNode != null && skillsNode.isObject()) {
-            Iterator<Map.Entry<String, JsonNode>> fields = skillsNode.fields();
-            while (fields.hasNext()) {
-                Map.Entry<String, JsonNode> entry = fields.next();
-                String skillName = entry.getKey();
-                JsonNode skillData = entry.getValue();
-                
-                Optional<Skill> skillOpt = Skill.findByName(skillName);
-                if (skillOpt.isPresent()) {
-                    int level = skillData.path("level").asInt();
-                    long xp = skillData.path("xp").asLong();
-                    stats.add(new SkillStat(skillOpt.get(), level, xp));
+    private CompletableFuture<PlayerStats> fetchPlayerStatsAsync(String username, CompletableFuture<Void> abandoned) {
+        HttpRequest request = get("/api/player/" + username.replace(" ", "%20"));
+        return sendAsync("player", request, HttpResponse.BodyHandlers.ofInputStream(), 1, abandoned).thenApplyAsync(response -> {
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 404) {
+                    throw new CompletionException(new IOException("Player '" + username + "' not found on OSRS hiscores."));
                 }
+                if (response.statusCode() != 200) {
+                    throw new CompletionException(new IOException("OSRS API lookup failed with status " + response.statusCode()));
+                }
+                return checkParsed(username, statsParser.parse(body));
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
-        }
+        }, executor);
+    }
 
-        if (stats.isEmpty()) {
-            LOGGER.warn("No skills parsed for player {} from API response", username);
-        }
+    /**
+     * Fetch hiscore stats for several players with one request per batch of {@value #PLAYER_BATCH_MAX}.
+     * The osrs-api streams one NDJSON line per player as each upstream lookup finishes.
+     * Falls back to one request per player when the API has no batch endpoint.
+     *
+     * @param usernames OSRS usernames
+     * @return stats and per-player errors keyed by the requested username
+     * @throws IOException if a batch request fails as a whole
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public StatsBatch fetchPlayerStatsBatch(Collection<String> usernames) throws IOException, InterruptedException {
+        return await(fetchPlayerStatsBatchAsync(usernames));
+    }
 
-        return stats;
+    /**
+     * Fetch hiscore stats for several players without blocking; batches are sent concurrently.
+     *
+     * @param usernames OSRS usernames
+     * @return future completed with stats and per-player errors keyed by the requested username,
+     *         or failed with an IOException if a batch request fails as a whole
+     */
+    public CompletableFuture<StatsBatch> fetchPlayerStatsBatchAsync(Collection<String> usernames) {
+        List<String> pending = List.copyOf(new LinkedHashSet<>(usernames));
+        Map<String, PlayerStats> stats = new ConcurrentHashMap<>();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        CompletableFuture<Void> abandoned = new CompletableFuture<>();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += PLAYER_BATCH_MAX) {
+            List<String> chunk = pending.subList(from, Math.min(pending.size(), from + PLAYER_BATCH_MAX));
+            chunks.add(batchSupported
+                    ? fetchChunkAsync(chunk, stats, errors, abandoned)
+                    : fetchEachAsync(chunk, stats, errors, abandoned));
+        }
+        return abandonWith(CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            for (String username : pending) {
+                if (!stats.containsKey(username)) {
+                    errors.putIfAbsent(username, "No result returned for '" + username + "'");
+                }
+            }
+            return new StatsBatch(new HashMap<>(stats), new HashMap<>(errors));
+        }), abandoned);
     }
 
-    public Optional<JsonNode> fetchItemPrice(String itemName) {
+    /**
+     * Result of a batch stats lookup.
+     *
+     * @param stats stats for players that were found, keyed by requested username
+     * @param errors failure messages for the rest, keyed by requested username
+     */
+    public record StatsBatch(Map<String, PlayerStats> stats, Map<String, String> errors) {}
+
+    private CompletableFuture<Void> fetchChunkAsync(List<String> chunk, Map<String, PlayerStats> stats,
+                                                    Map<String, String> errors, CompletableFuture<Void> abandoned) {
+        HttpRequest request;
         try {
-            String url = baseUrl + "/api/item/" + itemName.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/api/players"))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(Map.of("usernames", chunk))))
                     .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return Optional.empty();
-            }
-            return Optional.of(objectMapper.readTree(response.body()));
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch item price for {}", itemName, e);
-            return Optional.empty();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
+        return sendAsync("players", request, HttpResponse.BodyHandlers.ofInputStream(), chunk.size(), abandoned).thenComposeAsync(response -> {
+            try (InputStream body = response.body()) {
+                if (response.statusCode() == 404) {
+                    LOGGER.info("OSRS API has no batch endpoint, falling back to one request per player");
+                    batchSupported = false;
+                    return fetchEachAsync(chunk, stats, errors, abandoned);
+                }
+                if (response.statusCode() != 200) {
+                    throw new CompletionException(new IOException("OSRS API batch lookup failed with status " + response.statusCode()));
+                }
+                statsParser.parseBatch(body, entry -> {
+                    String username = entry.username();
+                    if (entry.status() == 200) {
+                        stats.put(username, checkParsed(username, entry.stats() != null ? entry.stats() : PlayerStats.empty()));
+                    } else if (entry.status() == 404) {
+                        errors.put(username, "Player '" + username + "' not found on OSRS hiscores.");
+                    } else {
+                        errors.put(username, "OSRS API lookup failed with status " + entry.status()
+                                + ": " + (entry.error() == null ? "" : entry.error()));
+                    }
+                });
+                return CompletableFuture.completedFuture(null);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
     }
 
-    public Optional<JsonNode> fetchWikiSummary(String title) {
-        try {
-            String url = baseUrl + "/api/wiki/" + title.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+    private CompletableFuture<Void> fetchEachAsync(List<String> usernames, Map<String, PlayerStats> stats,
+                                                   Map<String, String> errors, CompletableFuture<Void> abandoned) {
+        return CompletableFuture.allOf(usernames.stream()
+                .map(username -> fetchPlayerStatsAsync(username, abandoned).handle((playerStats, error) -> {
+                    if (playerStats != null) {
+                        stats.put(username, playerStats);
+                    } else {
+                        errors.put(username, unwrap(error).getMessage());
+                    }
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new));
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return Optional.empty();
+    /**
+     * Send a request through the endpoint's circuit breaker without blocking,
+     * retrying timeouts, connection failures and retryable statuses with backoff.
+     * Rate limiter waits and backoff delays run on the client's executor, and the
+     * caller's rate limiter lane is carried across them.
+     *
+     * @param endpoint endpoint name for the circuit breaker
+     * @param request request to send
+     * @param handler response body handler
+     * @param hiscoreLookups rate limiter permits each attempt costs, or 0 for non-hiscore calls
+     * @param abandoned completes when the caller no longer wants the response, or null if the call is never abandoned
+     * @return future completed with the first non-retryable response, or the last response once
+     *         retries are used up; failed with an IOException if the circuit is open or every attempt failed
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(String endpoint, HttpRequest request,
+                                                             HttpResponse.BodyHandler<T> handler, int hiscoreLookups,
+                                                             CompletableFuture<?> abandoned) {
+        CircuitBreaker breaker = breakers.computeIfAbsent(endpoint,
+                name -> new CircuitBreaker(name, breakerThreshold, breakerCooldown));
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IOException("OSRS API " + endpoint + " endpoint is failing; circuit open"));
+        }
+        HiscoreRateLimiter.Lane lane = HiscoreRateLimiter.currentLane();
+        return attemptAsync(breaker, request, handler, hiscoreLookups, lane, abandoned, 0).whenComplete((response, error) -> {
+            if (error != null && !(unwrap(error) instanceof IOException)) {
+                breaker.recordAbandoned();
             }
-            return Optional.of(objectMapper.readTree(response.body()));
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch wiki summary for {}", title, e);
-            return Optional.empty();
+        });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> attemptAsync(CircuitBreaker breaker, HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler, int hiscoreLookups,
+                                                                HiscoreRateLimiter.Lane lane, CompletableFuture<?> abandoned,
+                                                                int attempt) {
+        CompletableFuture<Void> permits = hiscoreLookups > 0 && rateLimiter.isEnabled()
+                ? CompletableFuture.runAsync(() -> acquire(lane, hiscoreLookups, abandoned), executor)
+                : CompletableFuture.completedFuture(null);
+        return permits.thenCompose(ignored -> send(request, handler, abandoned))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (!(cause instanceof IOException)) {
+                            return CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+                        }
+                        if (attempt >= maxRetries) {
+                            breaker.recordFailure();
+                            return CompletableFuture.<HttpResponse<T>>failedFuture(cause);
+                        }
+                        LOGGER.debug("OSRS API {} attempt {} failed: {}", breaker.name(), attempt + 1, cause.toString());
+                        return retryAfter(backoff(attempt, null), breaker, request, handler, hiscoreLookups, lane, abandoned, attempt);
+                    }
+                    int status = response.statusCode();
+                    if (RETRYABLE_STATUSES.contains(status) && attempt < maxRetries) {
+                        LOGGER.debug("OSRS API {} attempt {} returned {}", breaker.name(), attempt + 1, status);
+                        discard(response);
+                        return retryAfter(backoff(attempt, response), breaker, request, handler, hiscoreLookups, lane, abandoned, attempt);
+                    }
+                    if (status >= 500) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> retryAfter(Duration delay, CircuitBreaker breaker, HttpRequest request,
+                                                              HttpResponse.BodyHandler<T> handler, int hiscoreLookups,
+                                                              HiscoreRateLimiter.Lane lane, CompletableFuture<?> abandoned,
+                                                              int attempt) {
+        Executor delayed = CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor);
+        return CompletableFuture.runAsync(() -> { }, delayed)
+                .thenCompose(ignored -> attemptAsync(breaker, request, handler, hiscoreLookups, lane, abandoned, attempt + 1));
+    }
+
+    /**
+     * Send a request unless its caller has already given up, and abort the exchange if the caller gives up while it runs.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                        CompletableFuture<?> abandoned) {
+        if (abandoned == null) {
+            return httpClient.sendAsync(request, handler);
+        }
+        if (abandoned.isDone()) {
+            return CompletableFuture.failedFuture(new CancellationException("OSRS API request abandoned before it was sent"));
         }
+        CompletableFuture<HttpResponse<T>> response = httpClient.sendAsync(request, handler);
+        abandoned.whenComplete((ignored, error) -> response.cancel(true));
+        return response;
     }
 
-    public Optional<JsonNode> fetchWikiGuide(String title) {
+    private void acquire(HiscoreRateLimiter.Lane lane, int permits, CompletableFuture<?> abandoned) {
         try {
-            String url = baseUrl + "/api/wiki/guide/" + title.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return Optional.empty();
+            if (!rateLimiter.acquire(lane, permits, abandoned)) {
+                throw new CancellationException("OSRS API request abandoned while waiting for the rate limiter");
             }
-            return Optional.of(objectMapper.readTree(response.body()));
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch wiki guide for {}", title, e);
-            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
         }
     }
 
-    public Optional<JsonNode> searchWiki(String query) {
-        try {
-            String url = baseUrl + "/api/wiki/search/" + query.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+    private static Duration backoff(int attempt, HttpResponse<?> response) {
+        long cap = Math.min(RETRY_MAX_DELAY.toMillis(), RETRY_BASE_DELAY.toMillis() << Math.min(attempt, 16));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        if (response != null) {
+            Optional<String> retryAfter = response.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent() && retryAfter.get().trim().matches("\\d+")) {
+                delay = Math.max(delay, Math.min(RETRY_MAX_DELAY.toMillis(), Long.parseLong(retryAfter.get().trim()) * 1000));
+            }
+        }
+        return Duration.ofMillis(delay);
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return Optional.empty();
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof AutoCloseable body) {
+            try {
+                body.close();
+            } catch (Exception e) {
+                LOGGER.debug("Failed to close discarded response body", e);
             }
-            return Optional.of(objectMapper.readTree(response.body()));
-        } catch (Exception e) {
-            LOGGER.error("Failed to search wiki for {}", query, e);
-            return Optional.empty();
         }
     }
 
-    public List<JsonNode> searchItems(String query, int limit) {
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+    }
+
+    private JsonNode readTree(String body) {
         try {
-            String url = baseUrl + "/api/items/search/" + query.replace(" ", "%20") + "?limit=" + limit;
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return List.of();
+    /**
+     * Wait for a hiscore future, rethrowing its failure as the blocking methods always have.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IOException io) {
+                throw io;
             }
-            JsonNode root = objectMapper.readTree(response.body());
-            List<JsonNode> results = new ArrayList<>();
-            if (root.isArray()) {
-                for (JsonNode node : root) {
-                    results.add(node);
-                }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
             }
-            return results;
-        } catch (Exception e) {
-            LOGGER.error("Failed to search items for {}", query, e);
-            return List.of();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
         }
     }
 
-    public Optional<JsonNode> fetchQuestInfo(String questName) {
+    /**
+     * Wait for a future that already maps failures to a fallback value.
+     */
+    private static <T> T join(CompletableFuture<T> future, T fallback) {
         try {
-            String url = baseUrl + "/api/quests/" + questName.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return fallback;
+        } catch (ExecutionException e) {
+            return fallback;
+        }
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return Optional.empty();
-            }
-            return Optional.of(objectMapper.readTree(response.body()));
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch quest info for {}", questName, e);
-            return Optional.empty();
+    /**
+     * Complete {@code abandoned} once the caller's future is done, whether it finished, failed or was cancelled.
+     */
+    private static <T> CompletableFuture<T> abandonWith(CompletableFuture<T> future, CompletableFuture<Void> abandoned) {
+        future.whenComplete((result, error) -> abandoned.complete(null));
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause;
+    }
+
+    private static PlayerStats checkParsed(String username, PlayerStats stats) {
+        if (stats.isEmpty()) {
+            LOGGER.warn("No skills parsed for player {} from API response", username);
+        }
+        return stats;
+    }
+
+    public Optional<JsonNode> fetchItemPrice(String itemName) {
+        return join(fetchItemPriceAsync(itemName), Optional.empty());
+    }
+
+    public CompletableFuture<Optional<JsonNode>> fetchItemPriceAsync(String itemName) {
+        return fetchJsonAsync("item", "/api/item/" + itemName.replace(" ", "%20"), "fetch item price for " + itemName);
+    }
+
+    public Optional<JsonNode> fetchWikiSummary(String title) {
+        return join(fetchWikiSummaryAsync(title), Optional.empty());
+    }
+
+    public CompletableFuture<Optional<JsonNode>> fetchWikiSummaryAsync(String title) {
+        return fetchJsonAsync("wiki", "/api/wiki/" + title.replace(" ", "%20"), "fetch wiki summary for " + title);
+    }
+
+    public Optional<JsonNode> fetchWikiGuide(String title) {
+        return join(fetchWikiGuideAsync(title), Optional.empty());
+    }
+
+    public CompletableFuture<Optional<JsonNode>> fetchWikiGuideAsync(String title) {
+        return fetchJsonAsync("wiki/guide", "/api/wiki/guide/" + title.replace(" ", "%20"), "fetch wiki guide for " + title);
+    }
+
+    public Optional<JsonNode> searchWiki(String query) {
+        return join(searchWikiAsync(query), Optional.empty());
+    }
+
+    public CompletableFuture<Optional<JsonNode>> searchWikiAsync(String query) {
+        return fetchJsonAsync("wiki/search", "/api/wiki/search/" + query.replace(" ", "%20"), "search wiki for " + query);
+    }
+
+    public List<JsonNode> searchItems(String query, int limit) {
+        return join(searchItemsAsync(query, limit), List.of());
+    }
+
+    public CompletableFuture<List<JsonNode>> searchItemsAsync(String query, int limit) {
+        return fetchJsonAsync("items/search", "/api/items/search/" + query.replace(" ", "%20") + "?limit=" + limit,
+                "search items for " + query).thenApply(OsrsApiClient::elements);
+    }
+
+    public Optional<JsonNode> fetchQuestInfo(String questName) {
+        return join(fetchQuestInfoAsync(questName), Optional.empty());
+    }
+
+    public CompletableFuture<Optional<JsonNode>> fetchQuestInfoAsync(String questName) {
+        return fetchJsonAsync("quests", "/api/quests/" + questName.replace(" ", "%20"), "fetch quest info for " + questName);
     }
 
     public List<JsonNode> fetchSlayerTasks(String master) {
-        try {
-            String url = baseUrl + "/api/slayer/" + master.replace(" ", "%20");
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
+        return join(fetchSlayerTasksAsync(master), List.of());
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                return List.of();
-            }
-            JsonNode root = objectMapper.readTree(response.body());
-            List<JsonNode> tasks = new ArrayList<>();
-            if (root.isArray()) {
-                for (JsonNode node : root) {
-                    tasks.add(node);
-                }
+    public CompletableFuture<List<JsonNode>> fetchSlayerTasksAsync(String master) {
+        return fetchJsonAsync("slayer", "/api/slayer/" + master.replace(" ", "%20"), "fetch slayer tasks for " + master)
+                .thenApply(OsrsApiClient::elements);
+    }
+
+    /**
+     * Fetch a JSON document, completing with empty on a non-200 status or any failure.
+     */
+    private CompletableFuture<Optional<JsonNode>> fetchJsonAsync(String endpoint, String path, String description) {
+        return sendAsync(endpoint, get(path), HttpResponse.BodyHandlers.ofString(), 0, null)
+                .thenApply(response -> response.statusCode() == 200
+                        ? Optional.of(readTree(response.body()))
+                        : Optional.<JsonNode>empty())
+                .exceptionally(error -> {
+                    LOGGER.error("Failed to {}", description, unwrap(error));
+                    return Optional.empty();
+                });
+    }
+
+    private static List<JsonNode> elements(Optional<JsonNode> root) {
+        List<JsonNode> results = new ArrayList<>();
+        if (root.isPresent() && root.get().isArray()) {
+            for (JsonNode node : root.get()) {
+                results.add(node);
             }
-            return tasks;
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch slayer tasks for {}", master, e);
-            return List.of();
         }
+        return results;
     }
 }
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client for OSRS items, now delegating to the Node.js API.
@@ -23,6 +24,25 @@ public class OsrsItemClient {
 
     public record ItemPrice(Long high, Long low) {}
 
+    /**
+     * An item with its latest price.
+     *
+     * @param item item mapping with the canonical name
+     * @param price latest price, or null if the API returned none
+     */
+    public record PricedItem(ItemMapping item, ItemPrice price) {}
+
+    /**
+     * Look up an item and its latest price with a single request, without blocking.
+     *
+     * @param name item name or alias
+     * @return future completed with the item, or empty if not found
+     */
+    public CompletableFuture<Optional<PricedItem>> fetchItemAsync(String name) {
+        return apiClient.fetchItemPriceAsync(name).thenApply(nodeOpt -> nodeOpt
+                .map(node -> new PricedItem(toMapping(node), toPrice(node).orElse(null))));
+    }
+
     /**
      * Find an item by name (case-insensitive) or alias.
      *
@@ -35,8 +55,7 @@ public class OsrsItemClient {
         Optional<JsonNode> nodeOpt = apiClient.fetchItemPrice(name);
         if (nodeOpt.isEmpty()) return Optional.empty();
         
-        JsonNode node = nodeOpt.get();
-        return Optional.of(new ItemMapping(node.get("id").asInt(), node.get("name").asText()));
+        return Optional.of(toMapping(nodeOpt.get()));
     }
 
     /**
@@ -48,15 +67,17 @@ public class OsrsItemClient {
      * @throws InterruptedException on interrupted requests
      */
     public Optional<ItemPrice> fetchPriceByName(String name) throws IOException, InterruptedException {
-        Optional<JsonNode> nodeOpt = apiClient.fetchItemPrice(name);
-        if (nodeOpt.isEmpty()) return Optional.empty();
-
-        JsonNode prices = nodeOpt.get().path("prices");
-        if (prices.isMissingNode()) return Optional.empty();
+        return apiClient.fetchItemPrice(name).flatMap(OsrsItemClient::toPrice);
+    }
 
-        Long high = prices.has("high") && !prices.get("high").isNull() ? prices.get("high").asLong() : null;
-        Long low = prices.has("low") && !prices.get("low").isNull() ? prices.get("low").asLong() : null;
-        return Optional.of(new ItemPrice(high, low));
+    /**
+     * Fetch the latest price for an item name without blocking.
+     *
+     * @param name item name
+     * @return future completed with the price, or empty if not found
+     */
+    public CompletableFuture<Optional<ItemPrice>> fetchPriceByNameAsync(String name) {
+        return apiClient.fetchItemPriceAsync(name).thenApply(nodeOpt -> nodeOpt.flatMap(OsrsItemClient::toPrice));
     }
 
     /**
@@ -68,10 +89,36 @@ public class OsrsItemClient {
      */
     public List<ItemMapping> searchItems(String query, int limit) {
         return apiClient.searchItems(query, limit).stream()
-                .map(node -> new ItemMapping(node.get("id").asInt(), node.get("name").asText()))
+                .map(OsrsItemClient::toMapping)
                 .toList();
     }
 
+    /**
+     * Search for items matching a query without blocking.
+     *
+     * @param query search query
+     * @param limit maximum number of results
+     * @return future completed with matching item mappings
+     */
+    public CompletableFuture<List<ItemMapping>> searchItemsAsync(String query, int limit) {
+        return apiClient.searchItemsAsync(query, limit).thenApply(nodes -> nodes.stream()
+                .map(OsrsItemClient::toMapping)
+                .toList());
+    }
+
+    private static ItemMapping toMapping(JsonNode node) {
+        return new ItemMapping(node.get("id").asInt(), node.get("name").asText());
+    }
+
+    private static Optional<ItemPrice> toPrice(JsonNode node) {
+        JsonNode prices = node.path("prices");
+        if (prices.isMissingNode()) return Optional.empty();
+
+        Long high = prices.has("high") && !prices.get("high").isNull() ? prices.get("high").asLong() : null;
+        Long low = prices.has("low") && !prices.get("low").isNull() ? prices.get("low").asLong() : null;
+        return Optional.of(new ItemPrice(high, low));
+    }
+
     // Keep the id-based one for compatibility if needed, though name-based is easier with the new API
     public Optional<ItemPrice> fetchPrice(int id) throws IOException, InterruptedException {
         // Since the new API is name-based for lookup, this might be less efficient if we only have ID
@@ -5,6 +5,8 @@ package com.bobbot.osrs;
  */
 public final class OsrsXpTable {
     private static final int MAX_LEVEL = 120;
+    /** Highest virtual level; its threshold is the last one below the 200M XP cap. */
+    static final int MAX_VIRTUAL_LEVEL = 126;
     private static final long[] XP_TABLE = buildXpTable();
 
     private OsrsXpTable() {
@@ -46,11 +48,21 @@ public final class OsrsXpTable {
         return XP_TABLE[level];
     }
 
+    /**
+     * Return the XP needed to reach a level, including virtual levels up to 126.
+     *
+     * @param level target level, clamped to 1..126
+     * @return total XP required
+     */
+    static long xpForVirtualLevel(int level) {
+        return XP_TABLE[Math.max(1, Math.min(level, MAX_VIRTUAL_LEVEL))];
+    }
+
     private static long[] buildXpTable() {
-        long[] table = new long[MAX_LEVEL + 1];
+        long[] table = new long[MAX_VIRTUAL_LEVEL + 1];
         table[1] = 0L;
         long points = 0L;
-        for (int level = 1; level < MAX_LEVEL; level++) {
+        for (int level = 1; level < MAX_VIRTUAL_LEVEL; level++) {
             points += Math.floor(level + 300.0 * Math.pow(2.0, (double) level / 7.0));
             table[level + 1] = (long) Math.floor(points / 4.0);
         }
@@ -0,0 +1,169 @@
+package com.bobbot.osrs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hiscore snapshot for a single player with levels and XP held in dense arrays
+ * indexed by {@link Skill#lineIndex()}. Entries the hiscores did not return are -1.
+ */
+public final class PlayerStats {
+    private final int[] levels;
+    private final long[] xp;
+
+    private PlayerStats(int[] levels, long[] xp) {
+        this.levels = levels;
+        this.xp = xp;
+    }
+
+    /**
+     * @return stats with every entry unknown
+     */
+    public static PlayerStats empty() {
+        int[] levels = new int[Skill.count()];
+        long[] xp = new long[Skill.count()];
+        Arrays.fill(levels, -1);
+        Arrays.fill(xp, -1L);
+        return new PlayerStats(levels, xp);
+    }
+
+    /**
+     * Build stats from a list of skill stats.
+     *
+     * @param stats parsed skill stats
+     * @return dense stats
+     */
+    public static PlayerStats of(List<SkillStat> stats) {
+        PlayerStats result = empty();
+        for (SkillStat stat : stats) {
+            result.set(stat.skill(), stat.level(), stat.xp());
+        }
+        return result;
+    }
+
+    /**
+     * Set a skill while the stats are being parsed.
+     *
+     * @param skill skill to set
+     * @param level level
+     * @param xp experience
+     */
+    void set(Skill skill, int level, long xp) {
+        levels[skill.lineIndex()] = level;
+        this.xp[skill.lineIndex()] = xp;
+    }
+
+    /**
+     * @param skill skill to read
+     * @return level, or -1 if unknown
+     */
+    public int level(Skill skill) {
+        return levels[skill.lineIndex()];
+    }
+
+    /**
+     * @param lineIndex hiscore line index
+     * @return level, or -1 if unknown
+     */
+    public int level(int lineIndex) {
+        return levels[lineIndex];
+    }
+
+    /**
+     * @param skill skill to read
+     * @return experience, or -1 if unknown
+     */
+    public long xp(Skill skill) {
+        return xp[skill.lineIndex()];
+    }
+
+    /**
+     * @param lineIndex hiscore line index
+     * @return experience, or -1 if unknown
+     */
+    public long xp(int lineIndex) {
+        return xp[lineIndex];
+    }
+
+    /**
+     * @param skill skill to check
+     * @return true if the hiscores returned the skill
+     */
+    public boolean has(Skill skill) {
+        return levels[skill.lineIndex()] != -1 || xp[skill.lineIndex()] != -1;
+    }
+
+    /**
+     * @return true if no skill was returned
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < levels.length; i++) {
+            if (levels[i] != -1 || xp[i] != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return fingerprint of the level and XP vectors; see {@link #fingerprint(int[], long[])}
+     */
+    public long fingerprint() {
+        return fingerprint(levels, xp);
+    }
+
+    /**
+     * Compute a cheap 64-bit fingerprint of a stat vector, so a poll can tell
+     * whether a player changed without diffing skill by skill. Equal vectors
+     * always have equal fingerprints; callers compare total XP as well, which
+     * makes a false match between different vectors practically impossible.
+     *
+     * @param levels levels indexed by hiscore line
+     * @param xp XP indexed by hiscore line
+     * @return fingerprint
+     */
+    public static long fingerprint(int[] levels, long[] xp) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < levels.length; i++) {
+            hash = (hash ^ levels[i]) * 0x100000001b3L;
+            hash = (hash ^ xp[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * @param skill skill to read
+     * @return stat for the skill, or null if unknown
+     */
+    public SkillStat stat(Skill skill) {
+        return has(skill) ? new SkillStat(skill, level(skill), xp(skill)) : null;
+    }
+
+    /**
+     * @return copy of the level array
+     */
+    public int[] copyLevels() {
+        return levels.clone();
+    }
+
+    /**
+     * @return copy of the XP array
+     */
+    public long[] copyXp() {
+        return xp.clone();
+    }
+
+    /**
+     * @return known stats in hiscore order
+     */
+    public List<SkillStat> toSkillStats() {
+        List<SkillStat> stats = new ArrayList<>(levels.length);
+        for (Skill skill : Skill.ordered()) {
+            if (has(skill)) {
+                stats.add(new SkillStat(skill, level(skill), xp(skill)));
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,166 @@
+package com.bobbot.osrs;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for osrs-api stats responses. Reads tokens straight from
+ * the response body, skips the subtrees it does not need (bosses, clues,
+ * activities, other game modes), maps skill keys with {@link Skill#fromHiscoreKey}
+ * and writes levels and XP directly into a {@link PlayerStats}, so no response
+ * string or JSON tree is ever built.
+ */
+final class PlayerStatsParser {
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Create a parser.
+     *
+     * @param jsonFactory factory for token parsers
+     */
+    PlayerStatsParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Parse a single-player response body: {@code { "main": { "skills": { ... } }, ... }},
+     * or a bare {@code { "skills": { ... } }}.
+     *
+     * @param body response body
+     * @return parsed stats; empty if the response had no skills
+     * @throws IOException on malformed JSON
+     */
+    PlayerStats parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in stats response");
+            }
+            return readStats(parser);
+        }
+    }
+
+    /**
+     * Parse a batch response body of NDJSON lines
+     * {@code { "username": ..., "status": ..., "stats": { ... }, "error": ... }},
+     * handing each entry to the consumer as soon as it has been read.
+     *
+     * @param body response body
+     * @param consumer receives each entry
+     * @throws IOException on malformed JSON
+     */
+    void parseBatch(InputStream body, Consumer<BatchEntry> consumer) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected a JSON object per batch line, got " + token);
+                }
+                consumer.accept(readBatchEntry(parser));
+            }
+        }
+    }
+
+    /**
+     * One line of a batch response.
+     *
+     * @param username requested username
+     * @param status upstream status for the player
+     * @param stats parsed stats, or null if the line had none
+     * @param error error message, or null
+     */
+    record BatchEntry(String username, int status, PlayerStats stats, String error) {
+    }
+
+    private BatchEntry readBatchEntry(JsonParser parser) throws IOException {
+        String username = "";
+        int status = 0;
+        PlayerStats stats = null;
+        String error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "username" -> username = parser.getValueAsString("");
+                case "status" -> status = parser.getValueAsInt();
+                case "error" -> error = parser.getValueAsString();
+                case "stats" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        stats = readStats(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new BatchEntry(username, status, stats, error);
+    }
+
+    /**
+     * Read a stats object, preferring {@code main.skills} over a top-level {@code skills}.
+     * The parser is on the object's START_OBJECT and is left on its END_OBJECT.
+     */
+    private PlayerStats readStats(JsonParser parser) throws IOException {
+        PlayerStats main = null;
+        PlayerStats topLevel = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT && "main".equals(field)) {
+                main = readMode(parser);
+            } else if (token == JsonToken.START_OBJECT && "skills".equals(field)) {
+                topLevel = readSkills(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (main != null) {
+            return main;
+        }
+        return topLevel != null ? topLevel : PlayerStats.empty();
+    }
+
+    private PlayerStats readMode(JsonParser parser) throws IOException {
+        PlayerStats stats = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT && "skills".equals(field)) {
+                stats = readSkills(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return stats;
+    }
+
+    private PlayerStats readSkills(JsonParser parser) throws IOException {
+        PlayerStats stats = PlayerStats.empty();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Skill skill = Skill.fromHiscoreKey(parser.currentName());
+            JsonToken token = parser.nextToken();
+            if (skill == null || token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            int level = 0;
+            long xp = 0L;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "level" -> level = parser.getValueAsInt();
+                    case "xp" -> xp = parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+            stats.set(skill, level, xp);
+        }
+        return stats;
+    }
+}
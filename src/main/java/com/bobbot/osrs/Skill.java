@@ -2,7 +2,11 @@ package com.bobbot.osrs;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * OSRS skills in hiscore lite order.
@@ -37,6 +41,8 @@ public enum Skill {
     private static final List<Skill> ORDERED = Arrays.stream(values())
             .sorted(Comparator.comparingInt(Skill::lineIndex))
             .toList();
+    private static final Skill[] BY_LINE_INDEX = ORDERED.toArray(new Skill[0]);
+    private static final Map<String, Skill> BY_KEY = buildKeyLookup();
 
     private final int lineIndex;
     private final String displayName;
@@ -68,45 +74,75 @@ public enum Skill {
         return ORDERED;
     }
 
+    /**
+     * @return number of hiscore lines, i.e. the length of arrays indexed by {@link #lineIndex()}
+     */
+    public static int count() {
+        return BY_LINE_INDEX.length;
+    }
+
+    /**
+     * Look up a skill by its hiscore line index.
+     *
+     * @param lineIndex hiscore line index
+     * @return skill on that line
+     */
+    public static Skill fromLineIndex(int lineIndex) {
+        return BY_LINE_INDEX[lineIndex];
+    }
+
     /**
      * Find a skill by name, display name, or common alias.
      *
      * @param name skill name or alias
      * @return optional skill
      */
-    public static java.util.Optional<Skill> findByName(String name) {
-        if (name == null || name.isBlank()) return java.util.Optional.empty();
-        String n = name.toLowerCase().trim();
+    public static Optional<Skill> findByName(String name) {
+        if (name == null || name.isBlank()) return Optional.empty();
+        return Optional.ofNullable(BY_KEY.get(name.toLowerCase(Locale.ROOT).trim()));
+    }
 
-        // Aliases
-        switch (n) {
-            case "wc" -> n = "woodcutting";
-            case "rc" -> n = "runecraft";
-            case "hp" -> n = "hitpoints";
-            case "con" -> n = "construction";
-            case "fm" -> n = "firemaking";
-            case "herb" -> n = "herblore";
-            case "agil" -> n = "agility";
-            case "thiev" -> n = "thieving";
-            case "slay" -> n = "slayer";
-            case "farm" -> n = "farming";
-            case "hunt" -> n = "hunter";
-            case "str" -> n = "strength";
-            case "att" -> n = "attack";
-            case "def" -> n = "defence";
-            case "pray" -> n = "prayer";
-            case "mage" -> n = "magic";
-            case "cook" -> n = "cooking";
-            case "fish" -> n = "fishing";
-            case "fletch" -> n = "fletching";
-            case "smith" -> n = "smithing";
-            case "mine" -> n = "mining";
-            case "craft" -> n = "crafting";
-        }
+    /**
+     * Look up a skill by a key from an osrs-api stats response, such as "overall" or "attack".
+     * Keys are matched exactly first, so the common lowercase keys need no case conversion.
+     *
+     * @param key skill key
+     * @return skill, or null if the key is not a skill
+     */
+    public static Skill fromHiscoreKey(String key) {
+        Skill skill = BY_KEY.get(key);
+        return skill != null ? skill : BY_KEY.get(key.toLowerCase(Locale.ROOT).trim());
+    }
 
-        final String search = n;
-        return Arrays.stream(values())
-                .filter(s -> s.name().equalsIgnoreCase(search) || s.displayName().equalsIgnoreCase(search))
-                .findFirst();
+    private static Map<String, Skill> buildKeyLookup() {
+        Map<String, Skill> lookup = new HashMap<>();
+        for (Skill skill : values()) {
+            lookup.put(skill.name().toLowerCase(Locale.ROOT), skill);
+            lookup.put(skill.displayName().toLowerCase(Locale.ROOT), skill);
+        }
+        // Aliases
+        lookup.put("wc", WOODCUTTING);
+        lookup.put("rc", RUNECRAFT);
+        lookup.put("hp", HITPOINTS);
+        lookup.put("con", CONSTRUCTION);
+        lookup.put("fm", FIREMAKING);
+        lookup.put("herb", HERBLORE);
+        lookup.put("agil", AGILITY);
+        lookup.put("thiev", THIEVING);
+        lookup.put("slay", SLAYER);
+        lookup.put("farm", FARMING);
+        lookup.put("hunt", HUNTER);
+        lookup.put("str", STRENGTH);
+        lookup.put("att", ATTACK);
+        lookup.put("def", DEFENCE);
+        lookup.put("pray", PRAYER);
+        lookup.put("mage", MAGIC);
+        lookup.put("cook", COOKING);
+        lookup.put("fish", FISHING);
+        lookup.put("fletch", FLETCHING);
+        lookup.put("smith", SMITHING);
+        lookup.put("mine", MINING);
+        lookup.put("craft", CRAFTING);
+        return Map.copyOf(lookup);
     }
 }
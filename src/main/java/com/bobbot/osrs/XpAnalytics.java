@@ -0,0 +1,250 @@
+package com.bobbot.osrs;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Batch XP analytics over a dense roster matrix: one row per player, one
+ * column per {@link Skill#lineIndex()}, row-major in a single {@code long[]}
+ * (the layout of {@link PlayerStats#copyXp()}). One pass over the matrix
+ * derives real and virtual levels, XP to the next level, progress to 99,
+ * combat level and total-level rollups for every player. Levels come from a
+ * fixed seven-step search over a power-of-two XP table, so the inner loop
+ * has no data-dependent branches or allocation. Large rosters are split into
+ * row blocks computed in parallel.
+ */
+public final class XpAnalytics {
+    /**
+     * Columns per player row.
+     */
+    public static final int COLUMNS = Skill.count();
+    /**
+     * Roster size from which {@link #compute(long[], int)} runs in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 2048;
+
+    private static final int BLOCK_ROWS = 256;
+    private static final int MAX_LEVEL = 99;
+    private static final long XP_99 = OsrsXpTable.xpForLevel(MAX_LEVEL);
+    /** XP thresholds by level, padded to 128 entries so the search never leaves the array. */
+    private static final long[] SEARCH = buildSearchTable();
+    private static final int OVERALL = Skill.TOTAL.lineIndex();
+    private static final int ATTACK = Skill.ATTACK.lineIndex();
+    private static final int STRENGTH = Skill.STRENGTH.lineIndex();
+    private static final int DEFENCE = Skill.DEFENCE.lineIndex();
+    private static final int HITPOINTS = Skill.HITPOINTS.lineIndex();
+    private static final int RANGED = Skill.RANGED.lineIndex();
+    private static final int MAGIC = Skill.MAGIC.lineIndex();
+    private static final int PRAYER = Skill.PRAYER.lineIndex();
+    private static final int HITPOINTS_MIN_LEVEL = 10;
+
+    private XpAnalytics() {
+    }
+
+    /**
+     * Per-player analytics. Per-skill arrays share the matrix layout; their
+     * {@link Skill#TOTAL} column holds the player's rollups instead: total
+     * level, virtual total level, 0, and overall progress to all 99s.
+     * Skills with unknown XP (negative) have level -1, 0 XP to next and 0% progress,
+     * and count as their minimum level (10 for Hitpoints, otherwise 1) in the rollups.
+     *
+     * @param players number of player rows
+     * @param levels real levels, 1..99
+     * @param virtualLevels virtual levels, 1..126
+     * @param xpToNext XP to the next virtual level; 0 at 126
+     * @param percentTo99 progress towards 99 XP, 0..100
+     * @param combatLevels combat level per player
+     * @param totalXp summed known XP per player
+     */
+    public record Result(int players, int[] levels, int[] virtualLevels, long[] xpToNext, double[] percentTo99,
+                         int[] combatLevels, long[] totalXp) {
+        /**
+         * @param player player row
+         * @param skill skill
+         * @return real level, or -1 if unknown
+         */
+        public int level(int player, Skill skill) {
+            return levels[player * COLUMNS + skill.lineIndex()];
+        }
+
+        /**
+         * @param player player row
+         * @param skill skill
+         * @return virtual level, or -1 if unknown
+         */
+        public int virtualLevel(int player, Skill skill) {
+            return virtualLevels[player * COLUMNS + skill.lineIndex()];
+        }
+
+        /**
+         * @param player player row
+         * @return total level
+         */
+        public int totalLevel(int player) {
+            return levels[player * COLUMNS + OVERALL];
+        }
+
+        /**
+         * @param player player row
+         * @return virtual total level
+         */
+        public int virtualTotalLevel(int player) {
+            return virtualLevels[player * COLUMNS + OVERALL];
+        }
+
+        /**
+         * @param player player row
+         * @return progress towards 99 in every skill, 0..100
+         */
+        public double maxProgress(int player) {
+            return percentTo99[player * COLUMNS + OVERALL];
+        }
+
+        /**
+         * @param player player row
+         * @return combat level
+         */
+        public int combatLevel(int player) {
+            return combatLevels[player];
+        }
+    }
+
+    /**
+     * Build a roster matrix from player stats.
+     *
+     * @param roster player stats, one row each
+     * @return row-major XP matrix
+     */
+    public static long[] matrix(List<PlayerStats> roster) {
+        long[] xp = new long[roster.size() * COLUMNS];
+        for (int player = 0; player < roster.size(); player++) {
+            System.arraycopy(roster.get(player).copyXp(), 0, xp, player * COLUMNS, COLUMNS);
+        }
+        return xp;
+    }
+
+    /**
+     * Compute analytics for a roster, in parallel from {@link #PARALLEL_THRESHOLD} players.
+     *
+     * @param xp row-major XP matrix
+     * @param players number of player rows
+     * @return analytics
+     */
+    public static Result compute(long[] xp, int players) {
+        return compute(xp, players, players >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Compute analytics for a roster.
+     *
+     * @param xp row-major XP matrix
+     * @param players number of player rows
+     * @param parallel true to compute row blocks on the common fork-join pool
+     * @return analytics
+     * @throws IllegalArgumentException if the matrix is smaller than {@code players} rows
+     */
+    public static Result compute(long[] xp, int players, boolean parallel) {
+        if (players < 0 || xp.length < players * COLUMNS) {
+            throw new IllegalArgumentException("XP matrix has fewer than " + players + " rows");
+        }
+        int cells = players * COLUMNS;
+        Result result = new Result(players, new int[cells], new int[cells], new long[cells], new double[cells],
+                new int[players], new long[players]);
+        int blocks = (players + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        IntStream range = IntStream.range(0, blocks);
+        (parallel ? range.parallel() : range).forEach(block ->
+                computeRows(xp, result, block * BLOCK_ROWS, Math.min(players, (block + 1) * BLOCK_ROWS)));
+        return result;
+    }
+
+    /**
+     * @param xp skill XP
+     * @return virtual level 1..126, or -1 if the XP is unknown
+     */
+    public static int virtualLevel(long xp) {
+        if (xp < 0L) {
+            return -1;
+        }
+        int level = 0;
+        level += SEARCH[level + 64] <= xp ? 64 : 0;
+        level += SEARCH[level + 32] <= xp ? 32 : 0;
+        level += SEARCH[level + 16] <= xp ? 16 : 0;
+        level += SEARCH[level + 8] <= xp ? 8 : 0;
+        level += SEARCH[level + 4] <= xp ? 4 : 0;
+        level += SEARCH[level + 2] <= xp ? 2 : 0;
+        level += SEARCH[level + 1] <= xp ? 1 : 0;
+        return level;
+    }
+
+    /**
+     * @param xp skill XP
+     * @return progress towards 99, 0..100
+     */
+    public static double percentTo99(long xp) {
+        return xp <= 0L ? 0.0 : Math.min(100.0, xp * 100.0 / XP_99);
+    }
+
+    /**
+     * OSRS combat level from real levels: a quarter of defence, hitpoints and half prayer,
+     * plus 0.325 times the best of melee, ranged and magic, in integer arithmetic.
+     */
+    private static int combatLevel(int attack, int strength, int defence, int hitpoints, int ranged, int magic, int prayer) {
+        int offence = Math.max(attack + strength, Math.max(3 * ranged / 2, 3 * magic / 2));
+        return (10 * (defence + hitpoints + prayer / 2) + 13 * offence) / 40;
+    }
+
+    private static void computeRows(long[] xp, Result result, int from, int to) {
+        int[] levels = result.levels();
+        int[] virtualLevels = result.virtualLevels();
+        long[] xpToNext = result.xpToNext();
+        double[] percentTo99 = result.percentTo99();
+        for (int player = from; player < to; player++) {
+            int row = player * COLUMNS;
+            int total = 0;
+            int virtualTotal = 0;
+            long totalXp = 0L;
+            long cappedXp = 0L;
+            for (int column = 0; column < COLUMNS; column++) {
+                if (column == OVERALL) {
+                    continue;
+                }
+                int cell = row + column;
+                long skillXp = xp[cell];
+                int virtual = virtualLevel(skillXp);
+                int level = Math.min(virtual, MAX_LEVEL);
+                virtualLevels[cell] = virtual;
+                levels[cell] = level;
+                xpToNext[cell] = virtual < 1 || virtual >= OsrsXpTable.MAX_VIRTUAL_LEVEL ? 0L : SEARCH[virtual + 1] - skillXp;
+                percentTo99[cell] = percentTo99(skillXp);
+                int floor = column == HITPOINTS ? HITPOINTS_MIN_LEVEL : 1;
+                total += Math.max(level, floor);
+                virtualTotal += Math.max(virtual, floor);
+                totalXp += Math.max(0L, skillXp);
+                cappedXp += Math.max(0L, Math.min(skillXp, XP_99));
+            }
+            levels[row + OVERALL] = total;
+            virtualLevels[row + OVERALL] = virtualTotal;
+            percentTo99[row + OVERALL] = cappedXp * 100.0 / ((double) XP_99 * (COLUMNS - 1));
+            result.totalXp()[player] = totalXp;
+            result.combatLevels()[player] = combatLevel(
+                    Math.max(levels[row + ATTACK], 1),
+                    Math.max(levels[row + STRENGTH], 1),
+                    Math.max(levels[row + DEFENCE], 1),
+                    Math.max(levels[row + HITPOINTS], HITPOINTS_MIN_LEVEL),
+                    Math.max(levels[row + RANGED], 1),
+                    Math.max(levels[row + MAGIC], 1),
+                    Math.max(levels[row + PRAYER], 1));
+        }
+    }
+
+    private static long[] buildSearchTable() {
+        long[] table = new long[128];
+        for (int level = 1; level <= OsrsXpTable.MAX_VIRTUAL_LEVEL; level++) {
+            table[level] = OsrsXpTable.xpForVirtualLevel(level);
+        }
+        for (int level = OsrsXpTable.MAX_VIRTUAL_LEVEL + 1; level < table.length; level++) {
+            table[level] = Long.MAX_VALUE;
+        }
+        return table;
+    }
+}
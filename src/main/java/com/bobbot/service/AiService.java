@@ -1,10 +1,13 @@
 package com.bobbot.service;
 
+import com.bobbot.osrs.HiscoreRateLimiter;
 import com.bobbot.osrs.OsrsApiClient;
 import com.bobbot.osrs.SkillStat;
 import com.bobbot.storage.BotSettings;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.bobbot.storage.JsonStorage;
+import com.bobbot.storage.PlayerRepository;
+import com.bobbot.storage.XpHistoryStore;
 import com.bobbot.util.FormatUtils;
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
@@ -32,6 +35,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -71,6 +75,8 @@ public class AiService {
     }
 
     private final JsonStorage storage;
+    private final PlayerRepository playerRepository;
+    private final XpHistoryStore xpHistory;
     private final Path dataDir;
     private final PriceService priceService;
     private final LevelUpService levelUpService;
@@ -201,8 +207,10 @@ public class AiService {
         }
     };
 
-    public AiService(JsonStorage storage, Path dataDir, PriceService priceService, LevelUpService levelUpService, LeaderboardService leaderboardService, HealthService healthService, PaginationService paginationService, WikiService wikiService, OsrsApiClient apiClient) {
+    public AiService(JsonStorage storage, PlayerRepository playerRepository, XpHistoryStore xpHistory, Path dataDir, PriceService priceService, LevelUpService levelUpService, LeaderboardService leaderboardService, HealthService healthService, PaginationService paginationService, WikiService wikiService, OsrsApiClient apiClient) {
         this.storage = storage;
+        this.playerRepository = playerRepository;
+        this.xpHistory = xpHistory;
         this.dataDir = dataDir;
         this.priceService = priceService;
         this.levelUpService = levelUpService;
@@ -357,12 +365,27 @@ public class AiService {
         public String get_my_linked_username() {
             String userId = CURRENT_USER_ID.get();
             if (userId == null) return "Error: No user context found.";
-            var players = storage.loadPlayers();
-            var record = players.get(userId);
+            var record = playerRepository.get(userId);
             if (record == null) return "You don't have an OSRS account linked.";
             return "Your linked OSRS username is: " + record.getUsername();
         }
 
+        @Tool("Get how much XP the user who is speaking gained in a skill (or 'overall') over the last N days, from the bot's recorded XP history")
+        public String get_my_xp_gains(@P("skill_name") String skillName, @P("days") int days) {
+            String userId = CURRENT_USER_ID.get();
+            if (userId == null) return "Error: No user context found.";
+            var record = playerRepository.get(userId);
+            if (record == null) return "You haven't linked your OSRS account yet! Use /os link to get started.";
+            return formatXpGains(userId, record.getUsername(), skillName, days);
+        }
+
+        @Tool("Get how much XP a linked player gained in a skill (or 'overall') over the last N days, from the bot's recorded XP history. Only works for players linked to the bot.")
+        public String get_player_xp_gains(@P("username") String username, @P("skill_name") String skillName, @P("days") int days) {
+            return playerRepository.findDiscordIdByUsername(username)
+                    .map(discordId -> formatXpGains(discordId, playerRepository.get(discordId).getUsername(), skillName, days))
+                    .orElse(String.format("'%s' isn't linked to the bot, so I don't have any XP history for them.", username));
+        }
+
         @Tool("Get the current OSRS leaderboard showing all linked players and their total levels")
         public String get_leaderboard() {
             try {
@@ -391,7 +414,7 @@ public class AiService {
             
             // 1. Try to find by ID if it's a mention
             if (query.matches("\\d+")) {
-                var record = storage.loadPlayers().get(query);
+                var record = playerRepository.get(query);
                 if (record != null) {
                     try {
                         var stats = levelUpService.fetchSkillStats(record.getUsername());
@@ -416,7 +439,7 @@ public class AiService {
 
                     if (!members.isEmpty()) {
                         Member member = members.get(0);
-                        var record = storage.loadPlayers().get(member.getId());
+                        var record = playerRepository.get(member.getId());
                         if (record != null) {
                             try {
                                 var stats = levelUpService.fetchSkillStats(record.getUsername());
@@ -523,8 +546,10 @@ public class AiService {
         @Tool("Compare the current Grand Exchange prices of two OSRS items")
         public String compare_prices(@P("item1") String item1, @P("item2") String item2) {
             try {
-                var info1Opt = priceService.lookupPrice(item1);
-                var info2Opt = priceService.lookupPrice(item2);
+                var lookup1 = priceService.lookupPriceAsync(item1);
+                var lookup2 = priceService.lookupPriceAsync(item2);
+                var info1Opt = lookup1.join();
+                var info2Opt = lookup2.join();
 
                 if (info1Opt.isEmpty()) return "I couldn't find an item named '" + item1 + "'.";
                 if (info2Opt.isEmpty()) return "I couldn't find an item named '" + item2 + "'.";
@@ -689,7 +714,7 @@ public class AiService {
             }
         }
 
-        var playerRecord = storage.loadPlayers().get(userId);
+        var playerRecord = playerRepository.get(userId);
         if (playerRecord != null) {
             osrsUsername = playerRecord.getUsername();
         }
@@ -721,6 +746,7 @@ public class AiService {
         try {
             CURRENT_USER_ID.set(userId);
             CURRENT_GUILD_ID.set(guildId);
+            HiscoreRateLimiter.setCurrentLane(HiscoreRateLimiter.Lane.AI);
             LAST_PAGINATION_ID.remove();
             TOOL_CALL_MAP.get().clear();
             TOOL_CALL_COUNT.set(0);
@@ -812,6 +838,7 @@ public class AiService {
         } finally {
             CURRENT_USER_ID.remove();
             CURRENT_GUILD_ID.remove();
+            HiscoreRateLimiter.clearCurrentLane();
             LAST_PAGINATION_ID.remove();
         }
     }
@@ -838,6 +865,22 @@ public class AiService {
         return base;
     }
 
+    private String formatXpGains(String discordUserId, String username, String skillName, int days) {
+        var skill = com.bobbot.osrs.Skill.findByName(skillName).orElse(null);
+        if (skill == null) {
+            return String.format("'%s' isn't an OSRS skill I know, mate.", skillName);
+        }
+        int window = Math.max(1, days);
+        Instant now = Instant.now();
+        var gained = xpHistory.xpGained(discordUserId, skill, now.minus(Duration.ofDays(window)), now);
+        if (gained.isEmpty()) {
+            return String.format("I don't have enough %s history for %s over the last %d day(s) yet.",
+                    skill.displayName(), username, window);
+        }
+        return String.format("%s gained %,d %s XP over the last %d day(s).",
+                username, gained.getAsLong(), skill.displayName(), window);
+    }
+
     private String formatStats(String username, List<com.bobbot.osrs.SkillStat> stats) {
         if (stats.isEmpty()) return "No stats found for " + username;
         StringBuilder sb = new StringBuilder("Stats for ").append(username).append(":\n");
@@ -27,7 +27,35 @@ public class ConfigService {
             "PORT",
             "ENVIRONMENT",
             "AI_URL",
-            "AI_MODEL"
+            "AI_MODEL",
+            "PLAYER_JOURNAL",
+            "PLAYER_FLUSH_WINDOW",
+            "STORAGE_BACKEND",
+            "PLAYER_FORMAT",
+            "XP_HISTORY_RETENTION",
+            "XP_HISTORY_DOWNSAMPLE_AFTER",
+            "SCAN_CONCURRENCY",
+            "SCAN_BATCH_SIZE",
+            "SCAN_DEADLINE",
+            "POLL_MIN_INTERVAL",
+            "POLL_MAX_INTERVAL",
+            "POLL_BUDGET_PER_MINUTE",
+            "HISCORE_CACHE_TTL",
+            "HISCORE_CACHE_STALE",
+            "HISCORE_CACHE_MAX_SIZE",
+            "HISCORE_RATE_PER_SECOND",
+            "HISCORE_RATE_BURST",
+            "OSRS_API_CONNECT_TIMEOUT",
+            "OSRS_API_REQUEST_TIMEOUT",
+            "OSRS_API_RETRIES",
+            "OSRS_API_BREAKER_THRESHOLD",
+            "OSRS_API_BREAKER_COOLDOWN",
+            "CLUSTER_ENABLED",
+            "CLUSTER_INSTANCE_ID",
+            "CLUSTER_PARTITIONS",
+            "CLUSTER_HEARTBEAT",
+            "CLUSTER_LEASE_TTL",
+            "LEVELUP_DIGEST_WINDOW"
     );
 
     /**
@@ -1,13 +1,17 @@
 package com.bobbot.service;
 
+import com.bobbot.cluster.ClusterCoordinator;
 import com.bobbot.config.EnvConfig;
 import com.bobbot.discord.BotStatus;
 import com.bobbot.discord.DiscordFormatUtils;
+import com.bobbot.event.EventBus;
+import com.bobbot.event.EventMetrics;
 import com.bobbot.osrs.HiscoreClient;
 import com.bobbot.osrs.OsrsApiClient;
 import com.bobbot.storage.BotSettings;
 import com.bobbot.storage.JsonStorage;
 import com.bobbot.storage.PlayerRecord;
+import com.bobbot.storage.PlayerRepository;
 import com.bobbot.util.FormatUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -34,9 +38,15 @@ public class HealthService {
     private final Instant startedAt;
     private final EnvConfig envConfig;
     private final JsonStorage storage;
+    private final PlayerRepository playerRepository;
     private final LeaderboardService leaderboardService;
     private final HiscoreClient hiscoreClient;
     private final OsrsApiClient apiClient;
+    private final ScanEngine scanEngine;
+    private final PollScheduler pollScheduler;
+    private final ClusterCoordinator cluster;
+    private final EventBus events;
+    private final EventMetrics eventMetrics;
     private final Map<String, AiExecutionLog> thoughtCache = Collections.synchronizedMap(new LinkedHashMap<String, AiExecutionLog>(100, 0.75f, true) {
         @Override
         protected boolean removeEldestEntry(Map.Entry<String, AiExecutionLog> eldest) {
@@ -51,17 +61,29 @@ public class HealthService {
      *
      * @param envConfig environment configuration
      * @param storage storage layer
+     * @param playerRepository in-memory player repository
      * @param leaderboardService leaderboard service
      * @param hiscoreClient hiscore client
      * @param apiClient OSRS API client
+     * @param scanEngine hiscore scan engine
+     * @param pollScheduler per-player poll scheduler
+     * @param cluster cluster coordinator
+     * @param events event bus
+     * @param eventMetrics event totals kept by the metrics subscriber
      */
-    public HealthService(EnvConfig envConfig, JsonStorage storage, LeaderboardService leaderboardService, HiscoreClient hiscoreClient, OsrsApiClient apiClient) {
+    public HealthService(EnvConfig envConfig, JsonStorage storage, PlayerRepository playerRepository, LeaderboardService leaderboardService, HiscoreClient hiscoreClient, OsrsApiClient apiClient, ScanEngine scanEngine, PollScheduler pollScheduler, ClusterCoordinator cluster, EventBus events, EventMetrics eventMetrics) {
         this.startedAt = Instant.now();
         this.envConfig = envConfig;
         this.storage = storage;
+        this.playerRepository = playerRepository;
         this.leaderboardService = leaderboardService;
         this.hiscoreClient = hiscoreClient;
         this.apiClient = apiClient;
+        this.scanEngine = scanEngine;
+        this.pollScheduler = pollScheduler;
+        this.cluster = cluster;
+        this.events = events;
+        this.eventMetrics = eventMetrics;
     }
 
     /**
@@ -74,6 +96,22 @@ public class HealthService {
         return jda.getStatus() == JDA.Status.CONNECTED;
     }
 
+    /**
+     * Build a short health report for an instance that is not connected to Discord,
+     * such as a headless cluster poller.
+     *
+     * @return formatted health report
+     */
+    public String buildOfflineReport() {
+        return "BobBot health:\n"
+                + "- discord status: not-ready\n"
+                + "- linked players: " + playerRepository.size() + "\n"
+                + "- last scan: " + formatScanSummary(scanEngine.lastSummary()) + "\n"
+                + "- poll scheduler: " + pollScheduler.describe() + "\n"
+                + "- cluster: " + cluster.describe() + "\n"
+                + "- event queues: " + events.describe() + "\n";
+    }
+
     /**
      * Build a health report for the current bot instance.
      *
@@ -97,6 +135,15 @@ public class HealthService {
         builder.append("- linked players: ").append(data.playerCount()).append("\n");
         builder.append("- additional admins: ").append(data.adminCount()).append("\n");
         builder.append("- top xp user: ").append(data.topXpUser()).append("\n");
+        builder.append("- player writes: ").append(data.playerWrites()).append("\n");
+        builder.append("- last scan: ").append(data.lastScan()).append("\n");
+        builder.append("- poll scheduler: ").append(data.pollScheduler()).append("\n");
+        builder.append("- hiscore cache: ").append(data.hiscoreCache()).append("\n");
+        builder.append("- hiscore rate limit: ").append(data.hiscoreRateLimit()).append("\n");
+        builder.append("- osrs api circuits: ").append(data.apiCircuits()).append("\n");
+        builder.append("- cluster: ").append(data.cluster()).append("\n");
+        builder.append("- events: ").append(data.events()).append("\n");
+        builder.append("- event queues: ").append(data.eventQueues()).append("\n");
         builder.append("- leaderboard channel: ")
                 .append(data.leaderboardChannelId() == null || data.leaderboardChannelId().isBlank() ? "not set" : data.leaderboardChannelId())
                 .append("\n");
@@ -178,6 +225,15 @@ public class HealthService {
                     eb.addField("📜 Linked Players", String.format("`%d`", data.playerCount()), true);
                     eb.addField("👑 Admins", String.format("`%d`", data.adminCount()), true);
                     eb.addField("🏆 Top XP User", String.format("`%s`", data.topXpUser()), false);
+                    eb.addField("💾 Player Writes", String.format("`%s`", data.playerWrites()), false);
+                    eb.addField("🔎 Last Scan", String.format("`%s`", data.lastScan()), false);
+                    eb.addField("⏱️ Poll Scheduler", String.format("`%s`", data.pollScheduler()), false);
+                    eb.addField("🗃️ Hiscore Cache", String.format("`%s`", data.hiscoreCache()), false);
+                    eb.addField("🚦 Hiscore Rate Limit", String.format("`%s`", data.hiscoreRateLimit()), false);
+                    eb.addField("🔌 OSRS API Circuits", String.format("`%s`", data.apiCircuits()), false);
+                    eb.addField("🧩 Cluster", String.format("`%s`", data.cluster()), false);
+                    eb.addField("📣 Events", String.format("`%s`", data.events()), false);
+                    eb.addField("📬 Event Queues", String.format("`%s`", data.eventQueues()), false);
                 }
                 case "configuration" -> {
                     String bobChatInfo = data.bobsChatChannelId() == null || data.bobsChatChannelId().isBlank() ? "`not set`" : "`" + data.bobsChatChannelId() + "`";
@@ -229,9 +285,18 @@ public class HealthService {
                 apiHealth.pingMs(),
                 Duration.between(startedAt, Instant.now()),
                 jda.getGuilds().size(),
-                storage.loadPlayers().size(),
+                playerRepository.size(),
                 settings.getAdminUserIds().size(),
                 resolveTopXpUser(),
+                formatFlushStats(storage.flushStats()),
+                formatScanSummary(scanEngine.lastSummary()),
+                pollScheduler.describe(),
+                formatCacheStats(hiscoreClient.cacheStats()),
+                apiClient.rateLimiter().describe(),
+                apiClient.describeCircuits(),
+                cluster.describe(),
+                eventMetrics.describe(),
+                events.describe(),
                 settings.getLeaderboardChannelId(),
                 settings.getBobsChatChannelId(),
                 settings.getAiUrl(),
@@ -256,6 +321,15 @@ public class HealthService {
             int playerCount,
             int adminCount,
             String topXpUser,
+            String playerWrites,
+            String lastScan,
+            String pollScheduler,
+            String hiscoreCache,
+            String hiscoreRateLimit,
+            String apiCircuits,
+            String cluster,
+            String events,
+            String eventQueues,
             String leaderboardChannelId,
             String bobsChatChannelId,
             String aiUrl,
@@ -561,22 +635,34 @@ public class HealthService {
     }
 
     private String resolveTopXpUser() {
-        Map<String, PlayerRecord> players = storage.loadPlayers();
-        if (players.isEmpty()) {
-            return "none";
-        }
-        PlayerRecord best = null;
-        for (PlayerRecord record : players.values()) {
-            if (best == null || record.getLastTotalXp() > best.getLastTotalXp()) {
-                best = record;
-            }
-        }
+        PlayerRecord best = playerRepository.topByTotalXp().orElse(null);
         if (best == null) {
             return "none";
         }
         return String.format(Locale.US, "%s (%,d XP)", best.getUsername(), best.getLastTotalXp());
     }
 
+    private String formatFlushStats(JsonStorage.FlushStats stats) {
+        if (stats.flushes() == 0) {
+            return "none yet";
+        }
+        return String.format(Locale.US, "%,d flushes, %,d coalesced, last %dms / %,d bytes, %,d bytes total",
+                stats.flushes(), stats.coalescedWrites(), stats.lastFlushMillis(), stats.lastFlushBytes(), stats.totalBytes());
+    }
+
+    private String formatScanSummary(ScanEngine.ScanSummary summary) {
+        if (summary == null) {
+            return "none yet";
+        }
+        return summary.describe();
+    }
+
+    private String formatCacheStats(HiscoreClient.CacheStats stats) {
+        return String.format(Locale.US, "%,d/%,d players, ttl %s, %,d hits, %,d stale, %,d misses (%.1f%% hit rate), %,d coalesced",
+                stats.size(), stats.maxSize(), stats.ttl(), stats.hits(), stats.staleHits(), stats.misses(),
+                stats.hitRate() * 100, stats.coalesced());
+    }
+
     private OsrsStatus fetchOsrsStatus() {
         long start = System.nanoTime();
         try {
@@ -1,11 +1,13 @@
 package com.bobbot.service;
 
 import com.bobbot.discord.DiscordFormatUtils;
+import com.bobbot.event.EventBus;
+import com.bobbot.event.SnapshotRolloverEvent;
 import com.bobbot.osrs.Skill;
-import com.bobbot.osrs.SkillStat;
 import com.bobbot.storage.BotSettings;
 import com.bobbot.storage.JsonStorage;
 import com.bobbot.storage.PlayerRecord;
+import com.bobbot.storage.PlayerRepository;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
@@ -18,30 +20,36 @@ import java.time.temporal.TemporalAdjusters;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service to post and manage leaderboard updates.
  */
 public class LeaderboardService {
     private final JsonStorage storage;
+    private final PlayerRepository playerRepository;
     private final LevelUpService levelUpService;
+    private final EventBus events;
     private final AtomicBoolean scheduledEnabled = new AtomicBoolean(true);
 
     /**
      * Create a new leaderboard service.
      *
      * @param storage storage layer
-     * @param levelUpService level service for data refresh
+     * @param playerRepository in-memory player repository
+     * @param levelUpService level service for channel lookup and leaderboard snapshots
+     * @param events event bus for snapshot rollovers
      */
-    public LeaderboardService(JsonStorage storage, LevelUpService levelUpService) {
+    public LeaderboardService(JsonStorage storage, PlayerRepository playerRepository, LevelUpService levelUpService, EventBus events) {
         this.storage = storage;
+        this.playerRepository = playerRepository;
         this.levelUpService = levelUpService;
+        this.events = events;
     }
 
     /**
@@ -57,13 +65,14 @@ public class LeaderboardService {
         if (channel == null) {
             return;
         }
-        Map<String, PlayerRecord> players = levelUpService.refreshLevelsWithIds();
+        // rank the snapshots the poll scheduler keeps current, so a post costs no hiscore requests
+        playerRepository.reload();
+        Map<String, PlayerRecord> players = playerRepository.all();
         if (players.isEmpty()) {
             channel.sendMessage("No linked players yet. Use /link to add someone.").queue();
             return;
         }
         Skill skill = (forcedSkill != null) ? forcedSkill : pickRandomSkill();
-        Map<String, SkillStat> skillStats = fetchSkillStats(skill, players);
         Instant now = Instant.now();
         Instant weekStart = startOfWeek(now);
         Map<String, PlayerRecord> updatedPlayers = ensureWeeklySnapshots(players, weekStart);
@@ -73,7 +82,7 @@ public class LeaderboardService {
                 .setDescription("Current OSRS rankings for linked players.");
 
         StringBuilder skillLbBuilder = new StringBuilder();
-        List<PlayerEntry> skillEntries = buildSkillEntries(updatedPlayers, skillStats);
+        List<PlayerEntry> skillEntries = buildSkillEntries(updatedPlayers, skill);
         int rank = 1;
         for (PlayerEntry entry : skillEntries) {
             skillLbBuilder.append(String.format("`%d.` %s — lvl **%d**\n",
@@ -153,14 +162,11 @@ public class LeaderboardService {
      * @return formatted leaderboard string
      */
     public String getLeaderboardSummary() {
-        Map<String, PlayerRecord> players = storage.loadPlayers();
-        if (players.isEmpty()) {
+        List<PlayerRecord> records = playerRepository.rankByTotalLevel();
+        if (records.isEmpty()) {
             return "No players are currently linked to the bot.";
         }
 
-        List<PlayerRecord> records = new ArrayList<>(players.values());
-        records.sort(Comparator.comparingInt(PlayerRecord::getLastTotalLevel).reversed());
-
         StringBuilder sb = new StringBuilder("Current OSRS Leaderboard:\n");
         int rank = 1;
         for (PlayerRecord record : records) {
@@ -176,30 +182,6 @@ public class LeaderboardService {
         return sb.toString();
     }
 
-    private Map<String, SkillStat> fetchSkillStats(Skill skill, Map<String, PlayerRecord> players) {
-        Map<String, SkillStat> stats = new HashMap<>();
-        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            PlayerRecord record = entry.getValue();
-            try {
-                List<SkillStat> fetched = levelUpService.fetchSkillStats(record.getUsername());
-                SkillStat stat = fetched.stream()
-                        .filter(item -> item.skill() == skill)
-                        .findFirst()
-                        .orElse(null);
-                if (stat != null) {
-                    stats.put(entry.getKey(), stat);
-                }
-            } catch (Exception e) {
-                if (Thread.interrupted() || e instanceof InterruptedException || e.getCause() instanceof InterruptedException) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-                // best effort
-            }
-        }
-        return stats;
-    }
-
     /**
      * Update the bot's presence activity with the highest weekly XP gain.
      *
@@ -211,7 +193,7 @@ public class LeaderboardService {
         }
         Instant now = Instant.now();
         Instant weekStart = startOfWeek(now);
-        Map<String, PlayerRecord> players = storage.loadPlayers();
+        Map<String, PlayerRecord> players = playerRepository.all();
         ensureWeeklySnapshots(players, weekStart);
 
         String highestGain = getHighestWeeklyXpGain();
@@ -222,22 +204,38 @@ public class LeaderboardService {
         }
     }
 
+    /**
+     * Roll the weekly snapshot of every player whose snapshot predates this week.
+     * The check runs against the in-memory records first, so when nobody is due
+     * no update is started and, in a cluster, no shared lock is taken.
+     */
     private Map<String, PlayerRecord> ensureWeeklySnapshots(Map<String, PlayerRecord> players, Instant weekStart) {
-        Map<String, PlayerRecord> updated = new HashMap<>(players);
-        boolean changed = false;
+        List<String> due = new ArrayList<>();
         for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            PlayerRecord record = entry.getValue();
-            Instant lastWeeklyAt = record.getLastWeeklySnapshotAt();
-            if (lastWeeklyAt == null || lastWeeklyAt.isBefore(weekStart)) {
-                updated.put(entry.getKey(), record.withWeeklySnapshot(record.getLastTotalLevel(),
-                        record.getLastTotalXp(), weekStart));
-                changed = true;
+            if (needsWeeklySnapshot(entry.getValue(), weekStart)) {
+                due.add(entry.getKey());
             }
         }
-        if (changed) {
-            storage.savePlayers(updated);
+        if (due.isEmpty()) {
+            return players;
+        }
+        AtomicInteger rolled = new AtomicInteger();
+        playerRepository.updateAll(due, (discordUserId, record) -> {
+            if (record == null || !needsWeeklySnapshot(record, weekStart)) {
+                return record;
+            }
+            rolled.incrementAndGet();
+            return record.withWeeklySnapshot(record.getLastTotalLevel(), record.getLastTotalXp(), weekStart);
+        });
+        if (rolled.get() > 0) {
+            events.publish(new SnapshotRolloverEvent(SnapshotRolloverEvent.Kind.WEEKLY, weekStart, rolled.get()));
         }
-        return updated;
+        return playerRepository.all();
+    }
+
+    private static boolean needsWeeklySnapshot(PlayerRecord record, Instant weekStart) {
+        Instant lastWeeklyAt = record.getLastWeeklySnapshotAt();
+        return lastWeeklyAt == null || lastWeeklyAt.isBefore(weekStart);
     }
 
     /**
@@ -246,23 +244,8 @@ public class LeaderboardService {
      * @return formatted string of the highest gain, or "none"
      */
     public String getHighestWeeklyXpGain() {
-        Map<String, PlayerRecord> players = storage.loadPlayers();
-        if (players.isEmpty()) {
-            return "none";
-        }
-        PlayerRecord best = null;
-        long maxGain = -1;
-
-        for (PlayerRecord record : players.values()) {
-            if (record.getLastWeeklySnapshotTotalXp() != null) {
-                long gain = record.getLastTotalXp() - record.getLastWeeklySnapshotTotalXp();
-                if (gain > maxGain) {
-                    maxGain = gain;
-                    best = record;
-                }
-            }
-        }
-
+        PlayerRecord best = playerRepository.topWeeklyXpGain().orElse(null);
+        long maxGain = best == null ? 0L : PlayerRepository.weeklyXpGain(best);
         if (best == null || maxGain <= 0) {
             return "none";
         }
@@ -278,13 +261,15 @@ public class LeaderboardService {
         return weekStart.toInstant();
     }
 
-    private List<PlayerEntry> buildSkillEntries(Map<String, PlayerRecord> players, Map<String, SkillStat> stats) {
-        List<PlayerEntry> entries = new ArrayList<>();
+    /**
+     * Rank players by one skill using the per-skill snapshot stored on each
+     * record by the last poll, so no hiscore requests are needed.
+     */
+    private List<PlayerEntry> buildSkillEntries(Map<String, PlayerRecord> players, Skill skill) {
+        List<PlayerEntry> entries = new ArrayList<>(players.size());
         for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            SkillStat stat = stats.get(entry.getKey());
-            int level = stat != null ? stat.level() : 0;
-            long xp = stat != null ? stat.xp() : 0;
-            entries.add(new PlayerEntry(entry.getKey(), entry.getValue(), level, xp));
+            PlayerRecord record = entry.getValue();
+            entries.add(new PlayerEntry(entry.getKey(), record, Math.max(0, record.getLevel(skill)), Math.max(0L, record.getXp(skill))));
         }
         entries.sort(Comparator.comparingInt(PlayerEntry::skillLevel)
                 .thenComparingLong(PlayerEntry::skillXp)
@@ -0,0 +1,127 @@
+package com.bobbot.service;
+
+import com.bobbot.discord.DiscordFormatUtils;
+import com.bobbot.event.LevelUpEvent;
+import com.bobbot.osrs.OsrsXpTable;
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.JsonStorage;
+import com.bobbot.storage.PlayerRecord;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event bus subscriber that posts level-up announcements to Bob's chat channel.
+ * Runs on its own consumer thread and waits for each message to be sent, so a
+ * slow or rate-limited Discord only backs up this subscriber's queue. In
+ * digest mode the level-ups of a whole window are posted together as a few
+ * messages instead of one message per player.
+ */
+public class LevelUpAnnouncer {
+    /**
+     * Buffer capacity for queued announcements.
+     */
+    public static final int QUEUE_CAPACITY = 256;
+    /**
+     * Buffer capacity, and so the largest batch, in digest mode.
+     */
+    public static final int DIGEST_QUEUE_CAPACITY = 1024;
+
+    private final JsonStorage storage;
+    private final LevelUpService levelUpService;
+    private volatile JDA jda;
+
+    /**
+     * Create an announcer.
+     *
+     * @param storage storage layer for the channel setting
+     * @param levelUpService level service for channel resolution
+     */
+    public LevelUpAnnouncer(JsonStorage storage, LevelUpService levelUpService) {
+        this.storage = storage;
+        this.levelUpService = levelUpService;
+    }
+
+    /**
+     * Set the JDA client used to post announcements. Until one is set, level-ups are not announced.
+     *
+     * @param jda active JDA client
+     */
+    public void setJda(JDA jda) {
+        this.jda = jda;
+    }
+
+    /**
+     * Post a level-up announcement if Bob's chat channel is configured.
+     *
+     * @param event level-up event
+     */
+    public void announce(LevelUpEvent event) {
+        JDA current = jda;
+        MessageChannel bobsChatChannel = levelUpService.resolveChannel(current, storage.loadSettings().getBobsChatChannelId());
+        if (bobsChatChannel == null) {
+            return;
+        }
+        PlayerRecord record = event.previous();
+        PlayerStats stats = event.stats();
+        List<String> skillUps = new ArrayList<>();
+        for (int i = Skill.TOTAL.lineIndex() + 1; i < Skill.count(); i++) {
+            int currentLevel = stats.level(i);
+            int lastLevel = record.getLevel(i);
+            if (lastLevel != -1 && currentLevel > lastLevel) {
+                long xpToNext = OsrsXpTable.xpToNextLevel(currentLevel, stats.xp(i));
+                String xpInfo = xpToNext > 0
+                        ? String.format(" (%,d XP until %d)", xpToNext, currentLevel + 1)
+                        : " (Max Level!)";
+                skillUps.add(String.format("- **%s**: %d -> **%d**%s",
+                        Skill.fromLineIndex(i).displayName(), lastLevel, currentLevel, xpInfo));
+            }
+        }
+
+        EmbedBuilder eb = DiscordFormatUtils.createBobEmbed(current)
+                .setTitle("🎉 Level Up!")
+                .setDescription(String.format("**%s** gained **+%d** total levels!", record.getUsername(), event.levelsGained()))
+                .addField("New Total Level", String.valueOf(stats.level(Skill.TOTAL)), true);
+
+        if (!skillUps.isEmpty()) {
+            eb.addField("Skills Gained", String.join("\n", skillUps), false);
+        }
+
+        String mention = record.isPingOnLevelUp() ? String.format("<@%s>", event.discordUserId()) : "**" + record.getUsername() + "**";
+        String pingContent = String.format("%s GZ on the level up!", mention);
+        bobsChatChannel.sendMessage(pingContent).setEmbeds(eb.build()).complete();
+    }
+
+    /**
+     * Post a batch of level-ups as a digest: one field per player, packed into as few
+     * embeds and messages as Discord's limits allow, mentioning players who enabled pings.
+     *
+     * @param events level-ups collected within the digest window, oldest first
+     */
+    public void announceDigest(List<LevelUpEvent> events) {
+        JDA current = jda;
+        MessageChannel bobsChatChannel = levelUpService.resolveChannel(current, storage.loadSettings().getBobsChatChannelId());
+        if (bobsChatChannel == null || events.isEmpty()) {
+            return;
+        }
+        for (LevelUpDigest.Message message : LevelUpDigest.build(events)) {
+            List<MessageEmbed> embeds = new ArrayList<>(message.embeds().size());
+            for (LevelUpDigest.Embed embed : message.embeds()) {
+                EmbedBuilder eb = DiscordFormatUtils.createBobEmbed(current).setTitle(embed.title());
+                if (embed.description() != null) {
+                    eb.setDescription(embed.description());
+                }
+                for (LevelUpDigest.Field field : embed.fields()) {
+                    eb.addField(field.name(), field.value(), false);
+                }
+                embeds.add(eb.build());
+            }
+            bobsChatChannel.sendMessage(message.content()).setEmbeds(embeds).complete();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.bobbot.service;
+
+import com.bobbot.event.LevelUpEvent;
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.PlayerRecord;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lays out a batch of level-ups as few Discord messages as possible: one
+ * field per player, up to 25 fields per embed and 10 embeds per message,
+ * with each message's embed text and mention list kept within Discord's
+ * limits. Several level-ups of one player in the batch are merged.
+ */
+final class LevelUpDigest {
+    static final int MAX_CONTENT_LENGTH = 2000;
+    static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    static final int MAX_FIELDS_PER_EMBED = 25;
+    static final int MAX_FIELD_NAME_LENGTH = 256;
+    static final int MAX_FIELD_VALUE_LENGTH = 1024;
+    static final int MAX_EMBED_CHARS_PER_MESSAGE = 6000;
+    /** Room left in each embed for its title, description and footer. */
+    static final int EMBED_OVERHEAD = 128;
+
+    private static final String TITLE = "🎉 Level Ups";
+    private static final String CONTENT_SUFFIX = "GZ on the level ups!";
+
+    private LevelUpDigest() {
+    }
+
+    /**
+     * One embed field.
+     *
+     * @param name field name
+     * @param value field value
+     */
+    record Field(String name, String value) {
+        int length() {
+            return name.length() + value.length();
+        }
+    }
+
+    /**
+     * One embed.
+     *
+     * @param title embed title
+     * @param description embed description, or null
+     * @param fields embed fields
+     */
+    record Embed(String title, String description, List<Field> fields) {
+    }
+
+    /**
+     * One message.
+     *
+     * @param content message content with the mentions of players who asked to be pinged
+     * @param embeds message embeds
+     */
+    record Message(String content, List<Embed> embeds) {
+    }
+
+    /**
+     * Lay out a batch of level-ups.
+     *
+     * @param events level-ups, oldest first
+     * @return messages to send, in order
+     */
+    static List<Message> build(List<LevelUpEvent> events) {
+        Map<String, Merged> players = new LinkedHashMap<>();
+        for (LevelUpEvent event : events) {
+            players.merge(event.discordUserId(), new Merged(event.previous(), event.stats()),
+                    (earlier, later) -> new Merged(earlier.previous(), later.stats()));
+        }
+        int totalGained = 0;
+        List<MessageLayout> layouts = new ArrayList<>();
+        MessageLayout current = new MessageLayout();
+        for (Map.Entry<String, Merged> entry : players.entrySet()) {
+            Merged merged = entry.getValue();
+            totalGained += merged.stats().level(Skill.TOTAL) - merged.previous().getLastTotalLevel();
+            Field field = field(merged.previous(), merged.stats());
+            String mention = merged.previous().isPingOnLevelUp() ? String.format("<@%s> ", entry.getKey()) : "";
+            if (!current.fits(field, mention)) {
+                layouts.add(current);
+                current = new MessageLayout();
+            }
+            current.add(field, mention);
+        }
+        if (!current.embeds.isEmpty()) {
+            layouts.add(current);
+        }
+
+        int pages = layouts.stream().mapToInt(layout -> layout.embeds.size()).sum();
+        String summary = String.format(Locale.US, "**%,d** %s gained **+%,d** total levels!",
+                players.size(), players.size() == 1 ? "player" : "players", totalGained);
+        List<Message> messages = new ArrayList<>(layouts.size());
+        int page = 0;
+        for (MessageLayout layout : layouts) {
+            List<Embed> embeds = new ArrayList<>(layout.embeds.size());
+            for (List<Field> fields : layout.embeds) {
+                page++;
+                String title = pages > 1 ? String.format("%s (%d/%d)", TITLE, page, pages) : TITLE;
+                embeds.add(new Embed(title, page == 1 ? summary : null, List.copyOf(fields)));
+            }
+            messages.add(new Message(layout.mentions + CONTENT_SUFFIX, embeds));
+        }
+        return messages;
+    }
+
+    private static Field field(PlayerRecord previous, PlayerStats stats) {
+        int totalLevel = stats.level(Skill.TOTAL);
+        String name = truncate(String.format(Locale.US, "%s: +%d (total %d)", previous.getUsername(),
+                totalLevel - previous.getLastTotalLevel(), totalLevel), MAX_FIELD_NAME_LENGTH);
+        List<String> skillUps = new ArrayList<>();
+        for (int i = Skill.TOTAL.lineIndex() + 1; i < Skill.count(); i++) {
+            int currentLevel = stats.level(i);
+            int lastLevel = previous.getLevel(i);
+            if (lastLevel != -1 && currentLevel > lastLevel) {
+                skillUps.add(String.format("**%s** %d -> **%d**", Skill.fromLineIndex(i).displayName(), lastLevel, currentLevel));
+            }
+        }
+        if (skillUps.isEmpty()) {
+            return new Field(name, "New total level **" + totalLevel + "**");
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < skillUps.size(); i++) {
+            String line = skillUps.get(i);
+            String more = String.format("\n…and %d more", skillUps.size() - i);
+            int needed = (value.isEmpty() ? 0 : 1) + line.length();
+            boolean last = i == skillUps.size() - 1;
+            if (value.length() + needed + (last ? 0 : more.length()) > MAX_FIELD_VALUE_LENGTH) {
+                value.append(more);
+                break;
+            }
+            if (!value.isEmpty()) {
+                value.append('\n');
+            }
+            value.append(line);
+        }
+        return new Field(name, value.toString());
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max - 1) + "…";
+    }
+
+    private record Merged(PlayerRecord previous, PlayerStats stats) {
+    }
+
+    /**
+     * Fields and mentions collected for one message.
+     */
+    private static final class MessageLayout {
+        private final List<List<Field>> embeds = new ArrayList<>();
+        private final StringBuilder mentions = new StringBuilder();
+        private int chars;
+
+        private boolean fits(Field field, String mention) {
+            if (embeds.isEmpty()) {
+                return true;
+            }
+            boolean newEmbed = embeds.get(embeds.size() - 1).size() >= MAX_FIELDS_PER_EMBED;
+            if (newEmbed && embeds.size() >= MAX_EMBEDS_PER_MESSAGE) {
+                return false;
+            }
+            int added = field.length() + (newEmbed ? EMBED_OVERHEAD : 0);
+            return chars + added <= MAX_EMBED_CHARS_PER_MESSAGE
+                    && mentions.length() + mention.length() + CONTENT_SUFFIX.length() <= MAX_CONTENT_LENGTH;
+        }
+
+        private void add(Field field, String mention) {
+            if (embeds.isEmpty() || embeds.get(embeds.size() - 1).size() >= MAX_FIELDS_PER_EMBED) {
+                embeds.add(new ArrayList<>());
+                chars += EMBED_OVERHEAD;
+            }
+            embeds.get(embeds.size() - 1).add(field);
+            chars += field.length();
+            mentions.append(mention);
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package com.bobbot.service;
 
 import com.bobbot.config.EnvConfig;
-import com.bobbot.discord.DiscordFormatUtils;
+import com.bobbot.event.EventBus;
+import com.bobbot.event.LevelUpEvent;
+import com.bobbot.event.SnapshotRolloverEvent;
+import com.bobbot.event.XpGainEvent;
 import com.bobbot.osrs.HiscoreClient;
-import com.bobbot.osrs.OsrsXpTable;
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
 import com.bobbot.osrs.SkillStat;
-import com.bobbot.storage.BotSettings;
 import com.bobbot.storage.JsonStorage;
 import com.bobbot.storage.PlayerRecord;
-import net.dv8tion.jda.api.EmbedBuilder;
+import com.bobbot.storage.PlayerRepository;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import org.slf4j.Logger;
@@ -16,11 +19,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 /**
  * Service responsible for linking players and detecting level-ups.
@@ -28,20 +33,30 @@ import java.util.Map;
 public class LevelUpService {
     private static final Logger LOGGER = LoggerFactory.getLogger(LevelUpService.class);
     private final JsonStorage storage;
+    private final PlayerRepository playerRepository;
+    private final EventBus events;
     private final EnvConfig envConfig;
     private final HiscoreClient hiscoreClient;
+    private final ScanEngine scanEngine;
 
     /**
      * Create a new LevelUpService.
      *
      * @param storage storage layer
+     * @param playerRepository in-memory player repository
+     * @param events event bus for level-ups, XP gains and snapshot rollovers
      * @param envConfig environment configuration
      * @param hiscoreClient hiscore client
+     * @param scanEngine parallel hiscore scan engine
      */
-    public LevelUpService(JsonStorage storage, EnvConfig envConfig, HiscoreClient hiscoreClient) {
+    public LevelUpService(JsonStorage storage, PlayerRepository playerRepository, EventBus events, EnvConfig envConfig,
+                          HiscoreClient hiscoreClient, ScanEngine scanEngine) {
         this.storage = storage;
+        this.playerRepository = playerRepository;
+        this.events = events;
         this.envConfig = envConfig;
         this.hiscoreClient = hiscoreClient;
+        this.scanEngine = scanEngine;
     }
 
     /**
@@ -54,25 +69,11 @@ public class LevelUpService {
      * @throws InterruptedException on interrupted HTTP requests
      */
     public PlayerRecord linkPlayer(String discordUserId, String username) throws IOException, InterruptedException {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
-        List<SkillStat> stats = hiscoreClient.fetchSkillStats(username);
-        SkillStat overall = stats.stream()
-                .filter(s -> s.skill().isOverall())
-                .findFirst()
-                .orElseThrow(() -> new IOException("Overall stat missing"));
-
-        Map<String, Integer> skillLevels = new HashMap<>();
-        for (SkillStat stat : stats) {
-            if (!stat.skill().isOverall()) {
-                skillLevels.put(stat.skill().name(), stat.level());
-            }
-        }
-
+        PlayerStats stats = fetchPlayerStats(username);
         Instant snapshotTime = Instant.now();
-        PlayerRecord updated = new PlayerRecord(username, overall.level(), overall.xp(), snapshotTime, null,
-                overall.level(), overall.xp(), snapshotTime, skillLevels, true, true);
-        players.put(discordUserId, updated);
-        storage.savePlayers(players);
+        events.publish(new XpGainEvent(discordUserId, null, stats, snapshotTime));
+        PlayerRecord updated = PlayerRecord.linked(username, stats, snapshotTime);
+        playerRepository.put(discordUserId, updated);
         return updated;
     }
 
@@ -83,13 +84,7 @@ public class LevelUpService {
      * @return true if a player was unlinked, false if they weren't linked
      */
     public boolean unlinkPlayer(String discordUserId) {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
-        if (players.containsKey(discordUserId)) {
-            players.remove(discordUserId);
-            storage.savePlayers(players);
-            return true;
-        }
-        return false;
+        return playerRepository.remove(discordUserId);
     }
 
     /**
@@ -100,156 +95,64 @@ public class LevelUpService {
      * @return updated player record, or null if not linked
      */
     public PlayerRecord togglePing(String discordUserId, String type) {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
-        PlayerRecord record = players.get(discordUserId);
-        if (record == null) {
-            return null;
-        }
-
-        PlayerRecord updated;
+        UnaryOperator<PlayerRecord> toggle;
         if ("leaderboard".equals(type)) {
-            updated = record.withPingOnLeaderboard(!record.isPingOnLeaderboard());
+            toggle = record -> record.withPingOnLeaderboard(!record.isPingOnLeaderboard());
         } else if ("levelup".equals(type)) {
-            updated = record.withPingOnLevelUp(!record.isPingOnLevelUp());
+            toggle = record -> record.withPingOnLevelUp(!record.isPingOnLevelUp());
         } else {
             return null;
         }
-
-        players.put(discordUserId, updated);
-        storage.savePlayers(players);
-        return updated;
+        return playerRepository.update(discordUserId, record -> record == null ? null : toggle.apply(record));
     }
 
     /**
-     * Scan all linked players for total level increases and announce changes.
+     * Scan the given players for total level increases. Changed stats are published
+     * as {@link XpGainEvent}s and level increases as {@link LevelUpEvent}s; recording
+     * and announcing them is left to the event bus subscribers, so the scan never
+     * waits on Discord. Players whose stats match their stored record are skipped
+     * without diffing, events or writes; only changed records are persisted.
      *
-     * @param jda active JDA client
+     * @param discordUserIds Discord user IDs to scan; unlinked IDs are skipped
+     * @return scan result for the players that were scanned
      */
-    public void scanForLevelUps(JDA jda) {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
-        if (players.isEmpty()) {
-            return;
-        }
-        BotSettings settings = storage.loadSettings();
-        MessageChannel bobsChatChannel = resolveChannel(jda, settings.getBobsChatChannelId());
-        Map<String, PlayerRecord> updated = new HashMap<>(players);
-        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            String discordUserId = entry.getKey();
-            PlayerRecord record = entry.getValue();
-            try {
-                List<SkillStat> stats = hiscoreClient.fetchSkillStats(record.getUsername());
-                SkillStat overall = stats.stream()
-                        .filter(s -> s.skill().isOverall())
-                        .findFirst()
-                        .orElseThrow(() -> new IOException("Overall stat missing"));
-
-                boolean levelIncreased = overall.level() > record.getLastTotalLevel();
-                boolean firstTimeStats = record.getSkillLevels().isEmpty();
-
-                if (levelIncreased || firstTimeStats) {
-                    Map<String, Integer> currentSkillLevels = new HashMap<>();
-                    List<String> skillUps = new ArrayList<>();
-
-                    for (SkillStat stat : stats) {
-                        if (stat.skill().isOverall()) continue;
-                        String skillName = stat.skill().name();
-                        int currentLevel = stat.level();
-                        currentSkillLevels.put(skillName, currentLevel);
-
-                        Integer lastLevel = record.getSkillLevels().get(skillName);
-                        if (lastLevel != null && currentLevel > lastLevel) {
-                            long xpToNext = OsrsXpTable.xpToNextLevel(currentLevel, stat.xp());
-                            String xpInfo = xpToNext > 0
-                                    ? String.format(" (%,d XP until %d)", xpToNext, currentLevel + 1)
-                                    : " (Max Level!)";
-                            skillUps.add(String.format("- **%s**: %d -> **%d**%s",
-                                    stat.skill().displayName(), lastLevel, currentLevel, xpInfo));
-                        }
-                    }
-
-                    updated.put(discordUserId, record.withLevel(overall.level(), overall.xp(), currentSkillLevels));
-
-                    if (levelIncreased && bobsChatChannel != null) {
-                        int totalGained = overall.level() - record.getLastTotalLevel();
-                        EmbedBuilder eb = DiscordFormatUtils.createBobEmbed(jda)
-                                .setTitle("🎉 Level Up!")
-                                .setDescription(String.format("**%s** gained **+%d** total levels!", record.getUsername(), totalGained))
-                                .addField("New Total Level", String.valueOf(overall.level()), true);
-
-                        if (!skillUps.isEmpty()) {
-                            eb.addField("Skills Gained", String.join("\n", skillUps), false);
-                        }
-                        
-                        String mention = record.isPingOnLevelUp() ? String.format("<@%s>", discordUserId) : "**" + record.getUsername() + "**";
-                        String pingContent = String.format("%s GZ on the level up!", mention);
-                        bobsChatChannel.sendMessage(pingContent).setEmbeds(eb.build()).queue();
-                    }
-                } else if (overall.xp() > record.getLastTotalXp()) {
-                    updated.put(discordUserId, record.withLevel(overall.level(), overall.xp()));
-                }
-            } catch (IOException | InterruptedException e) {
-                if (e instanceof InterruptedException) {
-                    Thread.currentThread().interrupt();
-                }
-                LOGGER.warn("Failed to fetch level for {}", record.getUsername());
+    public ScanEngine.ScanResult scanForLevelUps(Collection<String> discordUserIds) {
+        Map<String, PlayerRecord> players = new LinkedHashMap<>();
+        for (String discordUserId : discordUserIds) {
+            PlayerRecord record = playerRepository.get(discordUserId);
+            if (record != null) {
+                players.put(discordUserId, record);
             }
         }
-        storage.savePlayers(updated);
-    }
-
-    /**
-     * Refresh total levels for all linked players.
-     *
-     * @return sorted list of updated player records
-     */
-    public List<PlayerRecord> refreshLevels() {
-        Map<String, PlayerRecord> refreshed = refreshLevelsWithIds();
-        if (refreshed.isEmpty()) {
-            return List.of();
-        }
-        List<PlayerRecord> records = new ArrayList<>(refreshed.values());
-        records.sort(Comparator.comparingInt(PlayerRecord::getLastTotalLevel).reversed());
-        return records;
-    }
-
-    /**
-     * Refresh total levels for all linked players with Discord IDs.
-     *
-     * @return updated players keyed by Discord user ID
-     */
-    public Map<String, PlayerRecord> refreshLevelsWithIds() {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
+        ScanEngine.ScanResult result = scanEngine.scan(players);
         if (players.isEmpty()) {
-            return Map.of();
+            return result;
         }
-        Map<String, PlayerRecord> updated = new HashMap<>(players);
-        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            PlayerRecord record = entry.getValue();
-            try {
-                List<SkillStat> stats = hiscoreClient.fetchSkillStats(record.getUsername());
-                SkillStat overall = stats.stream()
-                        .filter(s -> s.skill().isOverall())
-                        .findFirst()
-                        .orElseThrow(() -> new IOException("Overall stat missing"));
-
-                Map<String, Integer> skillLevels = new HashMap<>();
-                for (SkillStat stat : stats) {
-                    if (!stat.skill().isOverall()) {
-                        skillLevels.put(stat.skill().name(), stat.level());
-                    }
-                }
+        Map<String, UnaryOperator<PlayerRecord>> updated = new HashMap<>();
+        int unchanged = 0;
+        for (ScanEngine.PlayerScan scan : result.players()) {
+            String discordUserId = scan.discordUserId();
+            PlayerRecord record = scan.record();
+            if (!scan.succeeded()) {
+                LOGGER.warn("Failed to fetch level for {}", record.getUsername());
+                continue;
+            }
+            PlayerStats stats = scan.stats();
+            if (record.hasSameStats(stats)) {
+                unchanged++;
+                continue;
+            }
+            Instant now = Instant.now();
+            events.publish(new XpGainEvent(discordUserId, record, stats, now));
 
-                PlayerRecord newRecord = record.withLevel(overall.level(), overall.xp(), skillLevels);
-                updated.put(entry.getKey(), newRecord);
-            } catch (IOException | InterruptedException e) {
-                if (e instanceof InterruptedException) {
-                    Thread.currentThread().interrupt();
-                }
-                // keep existing record
+            if (stats.level(Skill.TOTAL) > record.getLastTotalLevel()) {
+                events.publish(new LevelUpEvent(discordUserId, record, stats, now));
             }
+            updated.put(discordUserId, forSameAccount(record, current -> current.withStats(stats)));
         }
-        storage.savePlayers(updated);
-        return updated;
+        applyUpdates(updated);
+        LOGGER.debug("Level-up scan: {} unchanged, {} written", unchanged, updated.size());
+        return result;
     }
 
     /**
@@ -261,28 +164,32 @@ public class LevelUpService {
      * @throws InterruptedException on interrupted HTTP requests
      */
     public PlayerRecord refreshPlayer(String discordUserId) throws IOException, InterruptedException {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
-        PlayerRecord record = players.get(discordUserId);
+        PlayerRecord record = playerRepository.get(discordUserId);
         if (record == null) {
             return null;
         }
-        List<SkillStat> stats = hiscoreClient.fetchSkillStats(record.getUsername());
-        SkillStat overall = stats.stream()
-                .filter(s -> s.skill().isOverall())
-                .findFirst()
-                .orElseThrow(() -> new IOException("Overall stat missing"));
+        PlayerStats stats = requireOverall(hiscoreClient.fetchPlayerStats(record.getUsername(), hiscoreClient.cacheTtl()));
+        events.publish(new XpGainEvent(discordUserId, record, stats, Instant.now()));
+        return playerRepository.update(discordUserId, forSameAccount(record, current -> current.withStats(stats)));
+    }
 
-        Map<String, Integer> skillLevels = new HashMap<>();
-        for (SkillStat stat : stats) {
-            if (!stat.skill().isOverall()) {
-                skillLevels.put(stat.skill().name(), stat.level());
-            }
-        }
+    /**
+     * Fetch a player's hiscore stats as dense arrays.
+     *
+     * @param username OSRS username
+     * @return player stats including the Overall entry
+     * @throws IOException on hiscore lookup failure or when Overall is missing
+     * @throws InterruptedException on interrupted HTTP requests
+     */
+    public PlayerStats fetchPlayerStats(String username) throws IOException, InterruptedException {
+        return requireOverall(hiscoreClient.fetchPlayerStats(username));
+    }
 
-        PlayerRecord updated = record.withLevel(overall.level(), overall.xp(), skillLevels);
-        players.put(discordUserId, updated);
-        storage.savePlayers(players);
-        return updated;
+    private static PlayerStats requireOverall(PlayerStats stats) throws IOException {
+        if (!stats.has(Skill.TOTAL)) {
+            throw new IOException("Overall stat missing");
+        }
+        return stats;
     }
 
     /**
@@ -301,27 +208,47 @@ public class LevelUpService {
      * Record a leaderboard snapshot for all linked players.
      */
     public void recordLeaderboardSnapshot() {
-        Map<String, PlayerRecord> players = new HashMap<>(storage.loadPlayers());
+        Map<String, PlayerRecord> players = playerRepository.all();
         if (players.isEmpty()) {
             return;
         }
-        Map<String, PlayerRecord> updated = new HashMap<>();
-        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
-            PlayerRecord record = entry.getValue();
-            updated.put(entry.getKey(), record.withLeaderboardSnapshot(record.getLastTotalLevel()));
-        }
-        storage.savePlayers(updated);
+        playerRepository.updateAll(players.keySet(),
+                (discordUserId, record) -> record == null ? null : record.withLeaderboardSnapshot(record.getLastTotalLevel()));
+        events.publish(new SnapshotRolloverEvent(SnapshotRolloverEvent.Kind.LEADERBOARD, Instant.now(), players.size()));
+    }
+
+    /**
+     * Apply per-player updates computed from hiscore lookups in a single write.
+     *
+     * @param updates updates keyed by Discord user ID
+     */
+    private void applyUpdates(Map<String, UnaryOperator<PlayerRecord>> updates) {
+        playerRepository.updateAll(updates.keySet(), (discordUserId, current) -> updates.get(discordUserId).apply(current));
+    }
+
+    /**
+     * Wrap an update computed from a lookup of {@code fetched} so it is only applied if the
+     * player is still linked to the same account when the write happens.
+     *
+     * @param fetched record the lookup was made for
+     * @param change update to apply to the current record
+     * @return guarded update
+     */
+    private static UnaryOperator<PlayerRecord> forSameAccount(PlayerRecord fetched, UnaryOperator<PlayerRecord> change) {
+        return current -> current == null || !Objects.equals(current.getUsername(), fetched.getUsername())
+                ? current
+                : change.apply(current);
     }
 
     /**
      * Resolve a Discord message channel from a channel ID.
      *
-     * @param jda active JDA client
+     * @param jda active JDA client, or null when running without Discord
      * @param channelId channel ID to resolve
      * @return resolved channel or null
      */
     public MessageChannel resolveChannel(JDA jda, String channelId) {
-        if (channelId == null || channelId.isBlank()) {
+        if (jda == null || channelId == null || channelId.isBlank()) {
             return null;
         }
         return jda.getChannelById(MessageChannel.class, channelId);
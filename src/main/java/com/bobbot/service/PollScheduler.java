@@ -0,0 +1,203 @@
+package com.bobbot.service;
+
+import com.bobbot.cluster.ClusterCoordinator;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.PlayerRecord;
+import com.bobbot.storage.PlayerRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which players to poll on each tick. Every player has its own poll
+ * interval: a poll that finds new XP drops it to the minimum, and every idle
+ * poll doubles it up to the maximum, so dormant accounts fade into the
+ * background while active ones are checked often. Players sit in a priority
+ * queue ordered by next due time, and a per-minute request budget caps how
+ * many are polled no matter how many are due. When several instances share
+ * the roster, only players in this instance's partitions are scheduled.
+ */
+public class PollScheduler {
+    /**
+     * How often the scheduler checks for due players.
+     */
+    public static final Duration TICK = Duration.ofSeconds(15);
+    private static final double JITTER = 0.1;
+
+    private final PlayerRepository playerRepository;
+    private final LevelUpService levelUpService;
+    private final ClusterCoordinator cluster;
+    private final Duration initialInterval;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final int budgetPerMinute;
+    private final PriorityQueue<PollState> queue = new PriorityQueue<>(Comparator.comparing(PollState::nextDue));
+    private final Map<String, PollState> states = new HashMap<>();
+    private final Map<String, PollState> inFlight = new HashMap<>();
+    private Instant windowStart = Instant.EPOCH;
+    private int usedInWindow;
+    /** Players that were due on the last tick but left queued because the budget ran out. */
+    private long deferred;
+
+    /**
+     * Create a poll scheduler.
+     *
+     * @param playerRepository player repository
+     * @param levelUpService service that scans players for level-ups
+     * @param cluster cluster coordinator deciding which players this instance polls
+     * @param initialInterval interval for players the scheduler has not polled yet
+     * @param minInterval shortest interval, used for players gaining XP
+     * @param maxInterval longest interval idle players back off to
+     * @param budgetPerMinute maximum hiscore polls per minute
+     */
+    public PollScheduler(PlayerRepository playerRepository, LevelUpService levelUpService, ClusterCoordinator cluster,
+                         Duration initialInterval, Duration minInterval, Duration maxInterval, int budgetPerMinute) {
+        this.playerRepository = playerRepository;
+        this.levelUpService = levelUpService;
+        this.cluster = cluster;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval.compareTo(minInterval) < 0 ? minInterval : maxInterval;
+        this.initialInterval = clamp(initialInterval);
+        this.budgetPerMinute = Math.max(1, budgetPerMinute);
+    }
+
+    /**
+     * Poll the players that are due, within the request budget, and reschedule them.
+     *
+     * @return true if any players were polled
+     */
+    public boolean tick() {
+        Instant now = Instant.now();
+        List<String> due = takeDue(now);
+        if (due.isEmpty()) {
+            return false;
+        }
+        ScanEngine.ScanResult result;
+        try {
+            result = levelUpService.scanForLevelUps(due);
+        } catch (RuntimeException e) {
+            requeueInFlight(Instant.now());
+            throw e;
+        }
+        reschedule(result, Instant.now());
+        return true;
+    }
+
+    /**
+     * @return one-line description of the scheduler state for health output
+     */
+    public synchronized String describe() {
+        PollState next = queue.peek();
+        long active = states.values().stream().filter(state -> state.interval().equals(minInterval)).count();
+        return String.format(Locale.US, "%d tracked, %d active, next due %s, %d/%d polls this minute, %,d due but deferred by budget",
+                states.size(), active, next == null ? "none" : next.nextDue(), usedInWindow, budgetPerMinute, deferred);
+    }
+
+    /**
+     * Pick due players, oldest first, without exceeding the budget for the current minute.
+     *
+     * @param now current time
+     * @return Discord user IDs to poll
+     */
+    synchronized List<String> takeDue(Instant now) {
+        syncWithRepository(now);
+        if (Duration.between(windowStart, now).compareTo(Duration.ofMinutes(1)) >= 0) {
+            windowStart = now;
+            usedInWindow = 0;
+        }
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().nextDue().isAfter(now)) {
+            if (usedInWindow >= budgetPerMinute) {
+                break;
+            }
+            PollState state = queue.poll();
+            states.remove(state.discordUserId());
+            if (playerRepository.get(state.discordUserId()) == null || !cluster.owns(state.discordUserId())) {
+                continue;
+            }
+            inFlight.put(state.discordUserId(), state);
+            due.add(state.discordUserId());
+            usedInWindow++;
+        }
+        deferred = usedInWindow < budgetPerMinute ? 0
+                : queue.stream().filter(state -> !state.nextDue().isAfter(now)).count();
+        return due;
+    }
+
+    /**
+     * Compute each polled player's next interval from what the poll found.
+     *
+     * @param result scan result for the polled players
+     * @param now completion time
+     */
+    synchronized void reschedule(ScanEngine.ScanResult result, Instant now) {
+        for (ScanEngine.PlayerScan scan : result.players()) {
+            PollState previous = inFlight.remove(scan.discordUserId());
+            if (previous == null) {
+                continue;
+            }
+            Duration interval;
+            long lastXp = previous.lastXp();
+            if (!scan.succeeded()) {
+                interval = clamp(previous.interval().multipliedBy(2));
+            } else {
+                long xp = scan.stats().xp(Skill.TOTAL);
+                interval = xp > previous.lastXp() ? minInterval : clamp(previous.interval().multipliedBy(2));
+                lastXp = xp;
+            }
+            schedule(new PollState(scan.discordUserId(), jittered(now, interval), interval, lastXp));
+        }
+        inFlight.clear();
+    }
+
+    private synchronized void requeueInFlight(Instant now) {
+        for (PollState state : inFlight.values()) {
+            schedule(new PollState(state.discordUserId(), jittered(now, state.interval()), state.interval(), state.lastXp()));
+        }
+        inFlight.clear();
+    }
+
+    private void syncWithRepository(Instant now) {
+        for (Map.Entry<String, PlayerRecord> entry : playerRepository.all().entrySet()) {
+            if (!states.containsKey(entry.getKey()) && !inFlight.containsKey(entry.getKey())
+                    && cluster.owns(entry.getKey())) {
+                schedule(new PollState(entry.getKey(), now, initialInterval, entry.getValue().getLastTotalXp()));
+            }
+        }
+        if (states.size() > playerRepository.size() || cluster.isEnabled()) {
+            states.keySet().removeIf(discordUserId -> playerRepository.get(discordUserId) == null
+                    || !cluster.owns(discordUserId));
+            queue.removeIf(state -> !states.containsKey(state.discordUserId()));
+        }
+    }
+
+    private void schedule(PollState state) {
+        states.put(state.discordUserId(), state);
+        queue.add(state);
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(minInterval) < 0) {
+            return minInterval;
+        }
+        return interval.compareTo(maxInterval) > 0 ? maxInterval : interval;
+    }
+
+    private static Instant jittered(Instant now, Duration interval) {
+        long millis = interval.toMillis();
+        long spread = (long) (millis * JITTER);
+        long offset = spread > 0 ? ThreadLocalRandom.current().nextLong(-spread, spread + 1) : 0L;
+        return now.plusMillis(millis + offset);
+    }
+
+    private record PollState(String discordUserId, Instant nextDue, Duration interval, long lastXp) {
+    }
+}
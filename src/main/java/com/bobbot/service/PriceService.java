@@ -3,8 +3,9 @@ package com.bobbot.service;
 import com.bobbot.osrs.OsrsItemClient;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Service for OSRS price lookups.
@@ -25,23 +26,37 @@ public class PriceService {
      * @throws InterruptedException on interrupted requests
      */
     public Optional<PriceInfo> lookupPrice(String itemName) throws IOException, InterruptedException {
-        Optional<OsrsItemClient.ItemPrice> price = itemClient.fetchPriceByName(itemName);
-        if (price.isEmpty()) {
-            // Try searching
-            List<OsrsItemClient.ItemMapping> searchResults = itemClient.searchItems(itemName, 1);
-            if (searchResults.isEmpty()) {
-                return Optional.empty();
-            }
-            OsrsItemClient.ItemMapping item = searchResults.get(0);
-            price = itemClient.fetchPriceByName(item.name());
-            return Optional.of(new PriceInfo(item.name(), price.orElse(null)));
+        try {
+            return lookupPriceAsync(itemName).get();
+        } catch (ExecutionException e) {
+            throw new IOException("Price lookup failed for " + itemName, e.getCause());
         }
+    }
 
-        // To get the "canonical" name if we found it directly
-        Optional<OsrsItemClient.ItemMapping> itemOpt = itemClient.findItem(itemName);
-        String finalName = itemOpt.map(OsrsItemClient.ItemMapping::name).orElse(itemName);
-
-        return Optional.of(new PriceInfo(finalName, price.get()));
+    /**
+     * Look up an item by name and fetch its price without blocking, so several
+     * lookups can run concurrently.
+     *
+     * @param itemName name of the item
+     * @return future completed with price info, or empty if not found
+     */
+    public CompletableFuture<Optional<PriceInfo>> lookupPriceAsync(String itemName) {
+        return itemClient.fetchItemAsync(itemName).thenCompose(found -> {
+            if (found.isPresent() && found.get().price() != null) {
+                // The direct lookup also carries the canonical name
+                OsrsItemClient.PricedItem item = found.get();
+                return CompletableFuture.completedFuture(Optional.of(new PriceInfo(item.item().name(), item.price())));
+            }
+            // Try searching
+            return itemClient.searchItemsAsync(itemName, 1).thenCompose(searchResults -> {
+                if (searchResults.isEmpty()) {
+                    return CompletableFuture.completedFuture(Optional.<PriceInfo>empty());
+                }
+                OsrsItemClient.ItemMapping item = searchResults.get(0);
+                return itemClient.fetchPriceByNameAsync(item.name())
+                        .thenApply(price -> Optional.of(new PriceInfo(item.name(), price.orElse(null))));
+            });
+        });
     }
 
     public record PriceInfo(String itemName, OsrsItemClient.ItemPrice price) {}
@@ -0,0 +1,258 @@
+package com.bobbot.service;
+
+import com.bobbot.osrs.HiscoreClient;
+import com.bobbot.osrs.HiscoreRateLimiter;
+import com.bobbot.osrs.OsrsApiClient;
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import com.bobbot.storage.PlayerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches hiscore stats for many players at once. Players are split into
+ * batches that each cost one request to the osrs-api; every batch gets its own
+ * virtual thread, a semaphore caps how many requests are in flight, and the
+ * whole scan is bounded by a deadline after which outstanding fetches are
+ * cancelled. Results come back in the order the players were given.
+ */
+public class ScanEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanEngine.class);
+
+    private final HiscoreClient hiscoreClient;
+    private final int concurrency;
+    private final int batchSize;
+    private final Duration deadline;
+    private volatile ScanSummary lastSummary;
+
+    /**
+     * Create a scan engine.
+     *
+     * @param hiscoreClient hiscore client
+     * @param concurrency maximum number of concurrent hiscore requests
+     * @param batchSize players per request; 1 fetches each player separately
+     * @param deadline maximum wall-clock time for one scan
+     */
+    public ScanEngine(HiscoreClient hiscoreClient, int concurrency, int batchSize, Duration deadline) {
+        this.hiscoreClient = hiscoreClient;
+        this.concurrency = Math.max(1, concurrency);
+        this.batchSize = Math.max(1, batchSize);
+        this.deadline = deadline;
+    }
+
+    /**
+     * Fetch stats for every player.
+     *
+     * @param players players keyed by Discord user ID
+     * @return per-player results in input order, with a summary
+     */
+    public ScanResult scan(Map<String, PlayerRecord> players) {
+        List<Map.Entry<String, PlayerRecord>> entries = List.copyOf(players.entrySet());
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long deadlineNanos = start + deadline.toNanos();
+        Semaphore permits = new Semaphore(concurrency);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<PlayerScan> results = new ArrayList<>(entries.size());
+        try {
+            List<List<Map.Entry<String, PlayerRecord>>> batches = new ArrayList<>();
+            List<Future<List<PlayerScan>>> futures = new ArrayList<>();
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<String, PlayerRecord>> batch = entries.subList(from, Math.min(entries.size(), from + batchSize));
+                batches.add(batch);
+                futures.add(executor.submit(() -> fetch(batch, permits)));
+            }
+            boolean interrupted = false;
+            for (int i = 0; i < futures.size(); i++) {
+                List<Map.Entry<String, PlayerRecord>> batch = batches.get(i);
+                Future<List<PlayerScan>> future = futures.get(i);
+                if (interrupted) {
+                    future.cancel(true);
+                    batch.forEach(entry -> results.add(PlayerScan.timedOut(entry.getKey(), entry.getValue())));
+                    continue;
+                }
+                try {
+                    long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+                    results.addAll(future.get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException | CancellationException e) {
+                    future.cancel(true);
+                    batch.forEach(entry -> results.add(PlayerScan.timedOut(entry.getKey(), entry.getValue())));
+                } catch (ExecutionException e) {
+                    batch.forEach(entry -> results.add(PlayerScan.failed(entry.getKey(), entry.getValue(), e.getCause(), 0L)));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    future.cancel(true);
+                    batch.forEach(entry -> results.add(PlayerScan.timedOut(entry.getKey(), entry.getValue())));
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        ScanSummary summary = ScanSummary.of(startedAt, Duration.ofNanos(System.nanoTime() - start), results);
+        lastSummary = summary;
+        LOGGER.debug("Hiscore scan: {}", summary.describe());
+        return new ScanResult(results, summary);
+    }
+
+    /**
+     * @return summary of the most recent scan, or null if none has run
+     */
+    public ScanSummary lastSummary() {
+        return lastSummary;
+    }
+
+    private List<PlayerScan> fetch(List<Map.Entry<String, PlayerRecord>> batch, Semaphore permits)
+            throws InterruptedException {
+        HiscoreRateLimiter.setCurrentLane(HiscoreRateLimiter.Lane.BACKGROUND);
+        permits.acquire();
+        long start = System.nanoTime();
+        try {
+            if (batch.size() == 1) {
+                Map.Entry<String, PlayerRecord> entry = batch.get(0);
+                try {
+                    PlayerStats stats = hiscoreClient.fetchPlayerStats(entry.getValue().getUsername(), hiscoreClient.cacheTtl());
+                    return List.of(toScan(entry, stats, null, start));
+                } catch (IOException | RuntimeException e) {
+                    return List.of(PlayerScan.failed(entry.getKey(), entry.getValue(), e, toMillis(System.nanoTime() - start)));
+                }
+            }
+            List<String> usernames = batch.stream().map(entry -> entry.getValue().getUsername()).toList();
+            OsrsApiClient.StatsBatch fetched;
+            try {
+                fetched = hiscoreClient.fetchPlayerStatsBatch(usernames);
+            } catch (IOException | RuntimeException e) {
+                long latency = toMillis(System.nanoTime() - start);
+                return batch.stream().map(entry -> PlayerScan.failed(entry.getKey(), entry.getValue(), e, latency)).toList();
+            }
+            List<PlayerScan> scans = new ArrayList<>(batch.size());
+            for (Map.Entry<String, PlayerRecord> entry : batch) {
+                String username = entry.getValue().getUsername();
+                String error = fetched.errors().get(username);
+                scans.add(toScan(entry, fetched.stats().get(username), error != null ? new IOException(error) : null, start));
+            }
+            return scans;
+        } finally {
+            permits.release();
+            HiscoreRateLimiter.clearCurrentLane();
+        }
+    }
+
+    private static PlayerScan toScan(Map.Entry<String, PlayerRecord> entry, PlayerStats stats, IOException error, long start) {
+        long latency = toMillis(System.nanoTime() - start);
+        if (error == null && (stats == null || !stats.has(Skill.TOTAL))) {
+            error = new IOException("Overall stat missing");
+        }
+        if (error != null) {
+            return PlayerScan.failed(entry.getKey(), entry.getValue(), error, latency);
+        }
+        return new PlayerScan(entry.getKey(), entry.getValue(), stats, null, false, latency);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Outcome of one scan.
+     *
+     * @param players per-player results in input order
+     * @param summary scan summary
+     */
+    public record ScanResult(List<PlayerScan> players, ScanSummary summary) {
+    }
+
+    /**
+     * Result of fetching one player.
+     *
+     * @param discordUserId Discord user ID
+     * @param record player record the fetch was made for
+     * @param stats fetched stats, or null if the fetch failed
+     * @param error failure cause, or null
+     * @param timedOut true if the scan deadline passed before the fetch finished
+     * @param latencyMillis time spent on the hiscore request that fetched the player
+     */
+    public record PlayerScan(String discordUserId, PlayerRecord record, PlayerStats stats, Throwable error,
+                             boolean timedOut, long latencyMillis) {
+        static PlayerScan failed(String discordUserId, PlayerRecord record, Throwable error, long latencyMillis) {
+            return new PlayerScan(discordUserId, record, null, error, false, latencyMillis);
+        }
+
+        static PlayerScan timedOut(String discordUserId, PlayerRecord record) {
+            return new PlayerScan(discordUserId, record, null, null, true, 0L);
+        }
+
+        /**
+         * @return true if stats were fetched
+         */
+        public boolean succeeded() {
+            return stats != null;
+        }
+    }
+
+    /**
+     * Summary of a scan: duration, outcome counts, and latency percentiles over completed fetches.
+     *
+     * @param startedAt scan start time
+     * @param duration wall-clock scan duration
+     * @param players number of players scanned
+     * @param succeeded fetches that returned stats
+     * @param failed fetches that failed
+     * @param timedOut fetches cut off by the deadline
+     * @param p50Millis median fetch latency
+     * @param p90Millis 90th percentile fetch latency
+     * @param p99Millis 99th percentile fetch latency
+     * @param maxMillis slowest fetch latency
+     */
+    public record ScanSummary(Instant startedAt, Duration duration, int players, int succeeded, int failed,
+                              int timedOut, long p50Millis, long p90Millis, long p99Millis, long maxMillis) {
+        static ScanSummary of(Instant startedAt, Duration duration, List<PlayerScan> results) {
+            long[] latencies = results.stream()
+                    .filter(result -> !result.timedOut())
+                    .mapToLong(PlayerScan::latencyMillis)
+                    .toArray();
+            Arrays.sort(latencies);
+            int succeeded = (int) results.stream().filter(PlayerScan::succeeded).count();
+            int timedOut = (int) results.stream().filter(PlayerScan::timedOut).count();
+            return new ScanSummary(startedAt, duration, results.size(), succeeded,
+                    results.size() - succeeded - timedOut, timedOut,
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    latencies.length == 0 ? 0L : latencies[latencies.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0L;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        /**
+         * @return one-line description for logs and health output
+         */
+        public String describe() {
+            return String.format(Locale.US, "%d players in %dms (%d ok, %d failed, %d timed out), latency p50 %dms / p90 %dms / p99 %dms / max %dms",
+                    players, duration.toMillis(), succeeded, failed, timedOut, p50Millis, p90Millis, p99Millis, maxMillis);
+        }
+    }
+}
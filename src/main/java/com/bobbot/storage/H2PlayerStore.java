@@ -0,0 +1,243 @@
+package com.bobbot.storage;
+
+import com.bobbot.util.FormatUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Player store backed by an embedded H2 database file in the data directory.
+ * Each row keeps the full record as JSON next to indexed columns for
+ * Discord ID, normalized OSRS username, total level/XP, and weekly XP gain.
+ */
+public class H2PlayerStore implements IndexedPlayerStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(H2PlayerStore.class);
+    private static final String[] SCHEMA = {
+            """
+            CREATE TABLE IF NOT EXISTS players (
+                discord_id VARCHAR(32) PRIMARY KEY,
+                username_key VARCHAR(64),
+                last_total_level INT NOT NULL,
+                last_total_xp BIGINT NOT NULL,
+                weekly_xp_gain BIGINT,
+                record CLOB NOT NULL
+            )""",
+            "CREATE INDEX IF NOT EXISTS idx_players_username ON players(username_key)",
+            "CREATE INDEX IF NOT EXISTS idx_players_total_level ON players(last_total_level DESC, last_total_xp DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_players_total_xp ON players(last_total_xp DESC)",
+            "CREATE INDEX IF NOT EXISTS idx_players_weekly_gain ON players(weekly_xp_gain DESC)"
+    };
+    private static final String UPSERT = """
+            MERGE INTO players (discord_id, username_key, last_total_level, last_total_xp, weekly_xp_gain, record)
+            KEY (discord_id) VALUES (?, ?, ?, ?, ?, ?)""";
+
+    private final Connection connection;
+    private final ObjectMapper mapper;
+
+    /**
+     * Open (or create) the player database in the given data directory.
+     *
+     * @param dataDir base data directory
+     * @throws IOException if the database cannot be opened
+     */
+    public H2PlayerStore(Path dataDir) throws IOException {
+        this.mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        try {
+            Files.createDirectories(dataDir);
+            String url = "jdbc:h2:file:" + dataDir.toAbsolutePath().resolve("players");
+            this.connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to open player database in " + dataDir.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Seed the database from another store when it has no players yet.
+     *
+     * @param players players to import, typically from players.json
+     */
+    public synchronized void importIfEmpty(Map<String, PlayerRecord> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM players")) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                return;
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to check player database before import", e);
+            return;
+        }
+        savePlayerChanges(players, players, List.of());
+        LOGGER.info("Imported {} players into the player database", players.size());
+    }
+
+    @Override
+    public synchronized Map<String, PlayerRecord> loadPlayers() {
+        Map<String, PlayerRecord> players = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT discord_id, record FROM players")) {
+            while (rs.next()) {
+                players.put(rs.getString(1), readRecord(rs.getString(2)));
+            }
+        } catch (SQLException | IOException e) {
+            LOGGER.warn("Failed to load players from the player database", e);
+        }
+        return players;
+    }
+
+    @Override
+    public synchronized void savePlayers(Map<String, PlayerRecord> players) {
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("DELETE FROM players");
+            upsertAll(players);
+            connection.commit();
+        } catch (SQLException | IOException e) {
+            rollback();
+            LOGGER.warn("Failed to save players to the player database", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized void savePlayerChanges(Map<String, PlayerRecord> players, Map<String, PlayerRecord> upserts,
+                                               Collection<String> removals) {
+        try {
+            connection.setAutoCommit(false);
+            upsertAll(upserts);
+            if (!removals.isEmpty()) {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM players WHERE discord_id = ?")) {
+                    for (String removal : removals) {
+                        delete.setString(1, removal);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+            connection.commit();
+        } catch (SQLException | IOException e) {
+            rollback();
+            LOGGER.warn("Failed to save player changes to the player database", e);
+        } finally {
+            restoreAutoCommit();
+        }
+    }
+
+    @Override
+    public synchronized List<String> findIdsByTotalLevel() {
+        return queryIds("SELECT discord_id FROM players ORDER BY last_total_level DESC, last_total_xp DESC");
+    }
+
+    @Override
+    public synchronized Optional<String> findTopIdByTotalXp() {
+        return queryIds("SELECT discord_id FROM players ORDER BY last_total_xp DESC LIMIT 1").stream().findFirst();
+    }
+
+    @Override
+    public synchronized Optional<String> findTopIdByWeeklyXpGain() {
+        return queryIds("SELECT discord_id FROM players WHERE weekly_xp_gain IS NOT NULL ORDER BY weekly_xp_gain DESC LIMIT 1")
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void flush() {
+        // every change is committed as it is written
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (!connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to close the player database", e);
+        }
+    }
+
+    private void upsertAll(Map<String, PlayerRecord> players) throws SQLException, IOException {
+        if (players.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+            for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
+                PlayerRecord record = entry.getValue();
+                upsert.setString(1, entry.getKey());
+                upsert.setString(2, FormatUtils.normalizeOsrsUsername(record.getUsername()));
+                upsert.setInt(3, record.getLastTotalLevel());
+                upsert.setLong(4, record.getLastTotalXp());
+                if (record.getLastWeeklySnapshotTotalXp() != null) {
+                    upsert.setLong(5, record.getLastTotalXp() - record.getLastWeeklySnapshotTotalXp());
+                } else {
+                    upsert.setNull(5, Types.BIGINT);
+                }
+                upsert.setString(6, mapper.writeValueAsString(record));
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+        }
+    }
+
+    private List<String> queryIds(String sql) {
+        List<String> ids = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Player database query failed: {}", sql, e);
+        }
+        return ids;
+    }
+
+    private PlayerRecord readRecord(String json) throws IOException {
+        return mapper.readValue(json, PlayerRecord.class);
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+            // best effort
+        }
+    }
+
+    private void restoreAutoCommit() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ignored) {
+            // best effort
+        }
+    }
+}
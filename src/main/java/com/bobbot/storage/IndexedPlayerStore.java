@@ -0,0 +1,27 @@
+package com.bobbot.storage;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Player store that can answer ranking queries from its own indexes
+ * instead of scanning the in-memory roster. Queries return Discord user IDs
+ * only, in rank order; callers resolve them to the records they already hold.
+ */
+public interface IndexedPlayerStore extends PlayerStore {
+
+    /**
+     * @return Discord user IDs of all players ordered by total level, then total XP, highest first
+     */
+    List<String> findIdsByTotalLevel();
+
+    /**
+     * @return Discord user ID of the player with the highest total XP, if any
+     */
+    Optional<String> findTopIdByTotalXp();
+
+    /**
+     * @return Discord user ID of the player with the highest XP gain since their weekly snapshot, if any
+     */
+    Optional<String> findTopIdByWeeklyXpGain();
+}
@@ -1,59 +1,173 @@
 package com.bobbot.storage;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Simple JSON file storage where each file is a collection.
+ * Players can optionally be journaled: mutations are appended to players.journal
+ * and folded back into players.json by a background compaction. Without the journal,
+ * full rewrites of players.json are coalesced and flushed at most once per flush window.
+ * The player snapshot can also be kept in a compact binary file (players.bin); whichever
+ * format is not configured is migrated on first load.
  */
-public class JsonStorage {
+public class JsonStorage implements PlayerStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonStorage.class);
+    private static final String SETTINGS_FILE = "settings.json";
+    private static final String PLAYERS_FILE = "players.json";
+    private static final String PLAYERS_BINARY_FILE = "players.bin";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+    private static final String PLAYER_JOURNAL_FILE = "players.journal";
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 500;
     private final Path dataDir;
     private final ObjectMapper mapper;
+    private final ObjectReader playersReader;
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicReference<BotSettings> settingsCache = new AtomicReference<>();
+    private final PlayerJournal playerJournal;
+    private final boolean binaryPlayers;
+    private final String playersFile;
+    private final Duration flushWindow;
+    private final ScheduledExecutorService backgroundWriter;
+    private Map<String, PlayerRecord> latestPlayers = Map.of();
+    private Map<String, PlayerRecord> pendingPlayers;
+    private boolean compactionQueued;
+    private boolean flushQueued;
+    private long coalescedWrites;
+    private volatile FlushStats flushStats = new FlushStats(0, 0, 0, 0, 0);
+    private volatile WatchService settingsWatcher;
 
     /**
-     * Create a new storage instance.
+     * Create a new storage instance that rewrites players.json on every change.
      *
      * @param dataDir base data directory
      */
     public JsonStorage(Path dataDir) {
+        this(dataDir, false, Duration.ZERO);
+    }
+
+    /**
+     * Create a new storage instance.
+     *
+     * @param dataDir base data directory
+     * @param journalPlayers true to append player changes to a journal instead of rewriting players.json
+     * @param flushWindow minimum time between full players.json rewrites; zero writes synchronously
+     */
+    public JsonStorage(Path dataDir, boolean journalPlayers, Duration flushWindow) {
+        this(dataDir, journalPlayers, flushWindow, false);
+    }
+
+    /**
+     * Create a new storage instance.
+     *
+     * @param dataDir base data directory
+     * @param journalPlayers true to append player changes to a journal instead of rewriting the snapshot
+     * @param flushWindow minimum time between full snapshot rewrites; zero writes synchronously
+     * @param binaryPlayers true to keep the player snapshot in players.bin instead of players.json
+     */
+    public JsonStorage(Path dataDir, boolean journalPlayers, Duration flushWindow, boolean binaryPlayers) {
         this.dataDir = dataDir;
+        this.binaryPlayers = binaryPlayers;
+        this.playersFile = binaryPlayers ? PLAYERS_BINARY_FILE : PLAYERS_FILE;
         this.mapper = new ObjectMapper()
                 .registerModule(new JavaTimeModule())
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // players.json is keyed by Discord ID; tens of thousands of similar numeric keys can
+        // trip Jackson's hash-flooding guard, which would fail the load and drop the roster
+        this.playersReader = new ObjectMapper(JsonFactory.builder()
+                .disable(JsonFactory.Feature.FAIL_ON_SYMBOL_HASH_OVERFLOW)
+                .build())
+                .registerModule(new JavaTimeModule())
+                .readerFor(new TypeReference<HashMap<String, PlayerRecord>>() {});
+        this.playerJournal = journalPlayers ? new PlayerJournal(dataDir.resolve(PLAYER_JOURNAL_FILE), mapper) : null;
+        this.flushWindow = flushWindow.isNegative() ? Duration.ZERO : flushWindow;
+        this.backgroundWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Statistics for full player snapshot writes.
+     *
+     * @param flushes number of snapshot writes
+     * @param coalescedWrites player saves absorbed by an already pending flush
+     * @param lastFlushMillis duration of the most recent write
+     * @param lastFlushBytes size of the most recent write
+     * @param totalBytes total bytes written
+     */
+    public record FlushStats(long flushes, long coalescedWrites, long lastFlushMillis, long lastFlushBytes, long totalBytes) {
     }
 
     /**
-     * Load player records keyed by Discord user ID.
+     * Load player records keyed by Discord user ID, replaying the journal when enabled.
      *
      * @return player map
      */
     public Map<String, PlayerRecord> loadPlayers() {
-        lock.readLock().lock();
+        lock.writeLock().lock();
         try {
-            Path file = dataDir.resolve("players.json");
-            if (!Files.exists(file)) {
-                return new HashMap<>();
+            Map<String, PlayerRecord> players = readPlayersFile();
+            if (playerJournal == null) {
+                return players;
             }
-            return mapper.readValue(file.toFile(), new TypeReference<>() {});
-        } catch (IOException e) {
-            return new HashMap<>();
+            boolean replayed;
+            try {
+                playerJournal.replay(players);
+                replayed = true;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to replay player journal; replacing it with a fresh snapshot", e);
+                replayed = false;
+            }
+            latestPlayers = new HashMap<>(players);
+            if (!replayed) {
+                try {
+                    ensureDataDir();
+                    writePlayersSnapshot(latestPlayers);
+                    playerJournal.truncate();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to replace player journal", e);
+                }
+            } else if (playerJournal.entryCount() > 0) {
+                LOGGER.info("Replayed {} player journal entries", playerJournal.entryCount());
+                scheduleCompaction();
+            }
+            return players;
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
     /**
-     * Persist player records.
+     * Persist a full snapshot of player records. When a flush window is configured the
+     * write is deferred and coalesced with any other saves inside the window.
      *
      * @param players player map
      */
@@ -61,8 +175,17 @@ public class JsonStorage {
         lock.writeLock().lock();
         try {
             ensureDataDir();
-            mapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(dataDir.resolve("players.json").toFile(), players);
+            if (playerJournal == null) {
+                if (flushWindow.isZero()) {
+                    writePlayersSnapshot(players);
+                } else {
+                    markDirty(players);
+                }
+            } else {
+                latestPlayers = players;
+                writePlayersSnapshot(players);
+                playerJournal.truncate();
+            }
         } catch (IOException ignored) {
             // best effort
         } finally {
@@ -71,36 +194,67 @@ public class JsonStorage {
     }
 
     /**
-     * Load bot settings.
+     * Persist a set of player changes. With journaling enabled only the changed
+     * records are appended; otherwise the full player map is rewritten.
      *
-     * @return stored settings
+     * @param players full player map after the change
+     * @param upserts players inserted or replaced by the change
+     * @param removals Discord user IDs removed by the change
      */
-    public BotSettings loadSettings() {
-        lock.readLock().lock();
+    public void savePlayerChanges(Map<String, PlayerRecord> players, Map<String, PlayerRecord> upserts,
+                                  Collection<String> removals) {
+        if (playerJournal == null) {
+            savePlayers(players);
+            return;
+        }
+        lock.writeLock().lock();
         try {
-            Path file = dataDir.resolve("settings.json");
-            if (!Files.exists(file)) {
-                return new BotSettings(null, null, "online", "production", null, null, null, null, null, null);
+            ensureDataDir();
+            latestPlayers = players;
+            playerJournal.append(upserts, removals);
+            if (playerJournal.entryCount() >= JOURNAL_COMPACTION_THRESHOLD) {
+                scheduleCompaction();
             }
-            return mapper.readValue(file.toFile(), BotSettings.class);
         } catch (IOException e) {
-            return new BotSettings(null, null, "online", "production", null, null, null, null, null, null);
+            LOGGER.warn("Failed to append to player journal; writing a full snapshot instead", e);
+            compactPlayers();
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Load bot settings from the cached snapshot, reading the file only on first use.
+     *
+     * @return stored settings
+     */
+    public BotSettings loadSettings() {
+        BotSettings cached = settingsCache.get();
+        if (cached != null) {
+            return cached;
         }
+        BotSettings loaded;
+        try {
+            loaded = readSettingsFile();
+        } catch (IOException e) {
+            loaded = defaultSettings();
+        }
+        settingsCache.compareAndSet(null, loaded);
+        return settingsCache.get();
     }
 
     /**
-     * Persist bot settings.
+     * Persist bot settings and refresh the cached snapshot.
      *
      * @param settings settings to save
      */
     public void saveSettings(BotSettings settings) {
         lock.writeLock().lock();
         try {
+            settingsCache.set(settings);
             ensureDataDir();
             mapper.writerWithDefaultPrettyPrinter()
-                    .writeValue(dataDir.resolve("settings.json").toFile(), settings);
+                    .writeValue(dataDir.resolve(SETTINGS_FILE).toFile(), settings);
         } catch (IOException ignored) {
             // best effort
         } finally {
@@ -108,6 +262,253 @@ public class JsonStorage {
         }
     }
 
+    /**
+     * Start a daemon thread that refreshes the cached settings when settings.json is edited externally.
+     */
+    public void watchSettings() {
+        if (settingsWatcher != null) {
+            return;
+        }
+        try {
+            ensureDataDir();
+            WatchService watcher = dataDir.getFileSystem().newWatchService();
+            dataDir.register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            settingsWatcher = watcher;
+            Thread thread = new Thread(() -> runSettingsWatcher(watcher), "settings-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to watch {} for settings changes", dataDir.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Write any pending player changes to disk immediately.
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            flushQueued = false;
+            if (pendingPlayers == null) {
+                return;
+            }
+            Map<String, PlayerRecord> players = pendingPlayers;
+            pendingPlayers = null;
+            writePlayersSnapshot(players);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to flush {}", playersFile, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return statistics for player snapshot writes
+     */
+    public FlushStats flushStats() {
+        return flushStats;
+    }
+
+    /**
+     * Stop background work, flushing pending players and compacting any journal entries.
+     */
+    public void close() {
+        backgroundWriter.shutdown();
+        flush();
+        if (playerJournal != null) {
+            compactPlayers();
+        }
+        WatchService watcher = settingsWatcher;
+        settingsWatcher = null;
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+    }
+
+    private void runSettingsWatcher(WatchService watcher) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            boolean settingsChanged = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path changed && SETTINGS_FILE.equals(changed.toString())) {
+                    settingsChanged = true;
+                }
+            }
+            if (settingsChanged) {
+                reloadSettings();
+            }
+            if (!key.reset()) {
+                LOGGER.warn("Settings watcher for {} is no longer valid", dataDir.toAbsolutePath());
+                return;
+            }
+        }
+    }
+
+    private void reloadSettings() {
+        try {
+            settingsCache.set(readSettingsFile());
+            LOGGER.info("Reloaded settings after external change");
+        } catch (IOException e) {
+            // likely a partial write; keep the current snapshot until the next event
+            LOGGER.debug("Ignoring unreadable settings file", e);
+        }
+    }
+
+    private BotSettings readSettingsFile() throws IOException {
+        lock.readLock().lock();
+        try {
+            Path file = dataDir.resolve(SETTINGS_FILE);
+            if (!Files.exists(file)) {
+                return defaultSettings();
+            }
+            return mapper.readValue(file.toFile(), BotSettings.class);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BotSettings defaultSettings() {
+        return new BotSettings(null, null, "online", "production", null, null, null, null, null, null);
+    }
+
+    private Map<String, PlayerRecord> readPlayersFile() {
+        Path file = dataDir.resolve(playersFile);
+        if (Files.exists(file)) {
+            try {
+                return decodePlayers(Files.readAllBytes(file), binaryPlayers);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to read {}", playersFile, e);
+                return new HashMap<>();
+            }
+        }
+        return migratePlayersFile();
+    }
+
+    /**
+     * Convert a snapshot left in the other format into the configured one.
+     * The old file is kept alongside with a .migrated suffix.
+     *
+     * @return migrated players, or an empty map if there is nothing to migrate
+     */
+    private Map<String, PlayerRecord> migratePlayersFile() {
+        String legacyName = binaryPlayers ? PLAYERS_FILE : PLAYERS_BINARY_FILE;
+        Path legacy = dataDir.resolve(legacyName);
+        if (!Files.exists(legacy)) {
+            return new HashMap<>();
+        }
+        Map<String, PlayerRecord> players;
+        try {
+            players = decodePlayers(Files.readAllBytes(legacy), !binaryPlayers);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read {} for migration", legacyName, e);
+            return new HashMap<>();
+        }
+        try {
+            writePlayersSnapshot(players);
+            Files.move(legacy, dataDir.resolve(legacyName + MIGRATED_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("Migrated {} players from {} to {}", players.size(), legacyName, playersFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to migrate {} to {}", legacyName, playersFile, e);
+        }
+        return players;
+    }
+
+    private Map<String, PlayerRecord> decodePlayers(byte[] bytes, boolean binary) throws IOException {
+        if (binary) {
+            return PlayerSnapshotCodec.decode(bytes);
+        }
+        return playersReader.readValue(bytes);
+    }
+
+    private void markDirty(Map<String, PlayerRecord> players) {
+        if (pendingPlayers != null) {
+            coalescedWrites++;
+        }
+        pendingPlayers = players;
+        if (flushQueued) {
+            return;
+        }
+        if (backgroundWriter.isShutdown()) {
+            flush();
+            return;
+        }
+        flushQueued = true;
+        backgroundWriter.schedule(this::flush, flushWindow.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduleCompaction() {
+        if (compactionQueued || backgroundWriter.isShutdown()) {
+            return;
+        }
+        compactionQueued = true;
+        backgroundWriter.execute(this::compactPlayers);
+    }
+
+    /**
+     * Fold the journal into a fresh players.json snapshot and truncate it.
+     */
+    private void compactPlayers() {
+        lock.writeLock().lock();
+        try {
+            compactionQueued = false;
+            if (playerJournal.entryCount() == 0) {
+                return;
+            }
+            int compacted = playerJournal.entryCount();
+            ensureDataDir();
+            writePlayersSnapshot(latestPlayers);
+            playerJournal.truncate();
+            LOGGER.debug("Compacted {} player journal entries into {}", compacted, playersFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to compact player journal", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write the player snapshot through a temp file so a crash never leaves a torn snapshot.
+     * The map is copied first because callers may pass a live view that is still changing.
+     *
+     * @param livePlayers player map
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writePlayersSnapshot(Map<String, PlayerRecord> livePlayers) throws IOException {
+        long start = System.nanoTime();
+        Map<String, PlayerRecord> players = new HashMap<>(livePlayers);
+        Path target = dataDir.resolve(playersFile);
+        Path temp = dataDir.resolve(playersFile + ".tmp");
+        byte[] bytes = binaryPlayers
+                ? PlayerSnapshotCodec.encode(players)
+                : mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(players);
+        Files.write(temp, bytes);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        FlushStats previous = flushStats;
+        flushStats = new FlushStats(previous.flushes() + 1, coalescedWrites, elapsedMs, bytes.length,
+                previous.totalBytes() + bytes.length);
+        LOGGER.debug("Wrote {} ({} players, {} bytes) in {}ms", playersFile, players.size(), bytes.length, elapsedMs);
+    }
+
     /**
      * Ensure that the data directory exists.
      *
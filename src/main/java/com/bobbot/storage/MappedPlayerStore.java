@@ -0,0 +1,366 @@
+package com.bobbot.storage;
+
+import com.bobbot.osrs.Skill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Player store backed by a memory-mapped table of fixed-width slots (players.tbl).
+ * Every player occupies one {@value #SLOT_SIZE}-byte slot holding the Discord ID,
+ * username, snapshot fields, flags, and the per-skill level and XP columns, so a
+ * change is written into the mapping and the OS pages it out. The store itself
+ * keeps only the slot index on the heap; note that {@link PlayerRepository} still
+ * caches every record it loads, so the process heap still grows with the roster.
+ * Each slot carries a CRC so a slot torn by a crash is skipped on load instead of
+ * being read back as garbage. An existing player is never rewritten in place: the
+ * new version goes into a free slot with a higher generation, the table is forced
+ * to disk, and only then is the old slot freed. If a crash leaves both copies, the
+ * newer one wins on load, so a player is never lost to a torn update.
+ */
+public class MappedPlayerStore implements PlayerStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedPlayerStore.class);
+    private static final String FILE_NAME = "players.tbl";
+    private static final int MAGIC = 0x424F4254; // "BOBT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int SLOT_SIZE = 384;
+    private static final int MAX_ID_BYTES = 32;
+    private static final int MAX_USERNAME_BYTES = 32;
+    private static final int CRC = 0;
+    private static final int STATE = 4;
+    private static final int FLAGS = 5;
+    private static final int ID_LENGTH = 6;
+    private static final int ID = 7;
+    private static final int USERNAME_LENGTH = ID + MAX_ID_BYTES;
+    private static final int USERNAME = USERNAME_LENGTH + 1;
+    private static final int TOTAL_LEVEL = 72;
+    private static final int TOTAL_XP = 76;
+    private static final int CHECKED_AT = 84;
+    private static final int LEADERBOARD_LEVEL = 96;
+    private static final int WEEKLY_LEVEL = 100;
+    private static final int WEEKLY_XP = 104;
+    private static final int WEEKLY_AT = 112;
+    private static final int LEVELS = 124;
+    private static final int XP = 176;
+    /** Write sequence number in the last 8 bytes, after the XP column; zero in slots from older builds. */
+    private static final int GENERATION = SLOT_SIZE - Long.BYTES;
+
+    private static final byte SLOT_FREE = 0;
+    private static final byte SLOT_USED = 1;
+    private static final int HAS_USERNAME = 1;
+    private static final int HAS_CHECKED_AT = 1 << 1;
+    private static final int HAS_LEADERBOARD_LEVEL = 1 << 2;
+    private static final int HAS_WEEKLY_LEVEL = 1 << 3;
+    private static final int HAS_WEEKLY_XP = 1 << 4;
+    private static final int HAS_WEEKLY_AT = 1 << 5;
+    private static final int PING_ON_LEADERBOARD = 1 << 6;
+    private static final int PING_ON_LEVEL_UP = 1 << 7;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer table;
+    private int capacity;
+    private long nextGeneration = 1L;
+
+    /**
+     * Open (or create) the player table in the given data directory.
+     *
+     * @param dataDir base data directory
+     * @throws IOException if the table cannot be opened or was written with a different layout
+     */
+    public MappedPlayerStore(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+        this.file = dataDir.resolve(FILE_NAME);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                map(INITIAL_CAPACITY);
+                writeHeader();
+            } else {
+                openExisting();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Seed the table from another store when it has no players yet.
+     *
+     * @param players players to import, typically from players.json
+     */
+    public synchronized void importIfEmpty(Map<String, PlayerRecord> players) {
+        if (players.isEmpty() || !slots.isEmpty()) {
+            return;
+        }
+        savePlayerChanges(players, players, List.of());
+        LOGGER.info("Imported {} players into {}", players.size(), file.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized Map<String, PlayerRecord> loadPlayers() {
+        Map<String, PlayerRecord> players = new HashMap<>(Math.max(16, slots.size() * 4 / 3 + 1));
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            players.put(entry.getKey(), readRecord(slotOffset(entry.getValue())));
+        }
+        return players;
+    }
+
+    @Override
+    public synchronized void savePlayers(Map<String, PlayerRecord> players) {
+        Set<String> stale = new HashSet<>(slots.keySet());
+        stale.removeAll(players.keySet());
+        savePlayerChanges(players, players, stale);
+    }
+
+    @Override
+    public synchronized void savePlayerChanges(Map<String, PlayerRecord> players, Map<String, PlayerRecord> upserts,
+                                               Collection<String> removals) {
+        List<Integer> replaced = new ArrayList<>();
+        for (String removal : removals) {
+            Integer slot = slots.remove(removal);
+            if (slot != null) {
+                table.put(slotOffset(slot) + STATE, SLOT_FREE);
+                freeSlots.push(slot);
+            }
+        }
+        for (Map.Entry<String, PlayerRecord> entry : upserts.entrySet()) {
+            try {
+                writeSlot(entry.getKey(), entry.getValue(), replaced);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write player {} to {}", entry.getKey(), file.toAbsolutePath(), e);
+            }
+        }
+        if (!replaced.isEmpty()) {
+            // the new versions must be durable before the slots holding the old ones are released
+            table.force();
+            for (int slot : replaced) {
+                table.put(slotOffset(slot) + STATE, SLOT_FREE);
+                freeSlots.push(slot);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        table.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            table.force();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close {}", file.toAbsolutePath(), e);
+        }
+    }
+
+    private void openExisting() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException(file.toAbsolutePath() + " is not a player table");
+        }
+        int version = header.getInt();
+        int slotSize = header.getInt();
+        int skillCount = header.getInt();
+        int storedCapacity = header.getInt();
+        if (version != VERSION || slotSize != SLOT_SIZE || skillCount != Skill.count()) {
+            throw new IOException("Unsupported player table layout (version " + version + ", slot " + slotSize
+                    + " bytes, " + skillCount + " skills) in " + file.toAbsolutePath());
+        }
+        map(storedCapacity);
+        // map() offers every slot as free; the scan below decides which ones really are
+        freeSlots.clear();
+        int torn = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = slotOffset(slot);
+            if (table.get(offset + STATE) != SLOT_USED) {
+                freeSlots.add(slot);
+            } else if (table.getInt(offset + CRC) != checksum(offset)) {
+                table.put(offset + STATE, SLOT_FREE);
+                freeSlots.add(slot);
+                torn++;
+            } else {
+                keepNewest(readString(offset + ID_LENGTH), slot);
+            }
+        }
+        if (torn > 0) {
+            LOGGER.warn("Skipped {} torn player slot(s) in {}", torn, file.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Index a valid slot, resolving two copies of one player left by an update
+     * that was interrupted before the old copy was freed.
+     */
+    private void keepNewest(String discordUserId, int slot) {
+        long generation = table.getLong(slotOffset(slot) + GENERATION);
+        nextGeneration = Math.max(nextGeneration, generation + 1);
+        Integer other = slots.get(discordUserId);
+        int stale = slot;
+        if (other == null || table.getLong(slotOffset(other) + GENERATION) < generation) {
+            slots.put(discordUserId, slot);
+            if (other == null) {
+                return;
+            }
+            stale = other;
+        }
+        table.put(slotOffset(stale) + STATE, SLOT_FREE);
+        freeSlots.add(stale);
+    }
+
+    private void map(int newCapacity) throws IOException {
+        long size = HEADER_SIZE + (long) newCapacity * SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Player table cannot grow beyond " + capacity + " players");
+        }
+        table = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        for (int slot = capacity; slot < newCapacity; slot++) {
+            freeSlots.add(slot);
+        }
+        capacity = newCapacity;
+    }
+
+    private void writeHeader() {
+        table.putInt(0, MAGIC);
+        table.putInt(4, VERSION);
+        table.putInt(8, SLOT_SIZE);
+        table.putInt(12, Skill.count());
+        table.putInt(16, capacity);
+    }
+
+    private void writeSlot(String discordUserId, PlayerRecord record, List<Integer> replaced) throws IOException {
+        byte[] id = discordUserId.getBytes(StandardCharsets.UTF_8);
+        byte[] username = record.getUsername() != null ? record.getUsername().getBytes(StandardCharsets.UTF_8) : null;
+        if (id.length > MAX_ID_BYTES || (username != null && username.length > MAX_USERNAME_BYTES)) {
+            throw new IOException("Discord ID or username too long for a player slot");
+        }
+        if (freeSlots.isEmpty()) {
+            map(Math.min(capacity * 2, (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE));
+            writeHeader();
+            if (freeSlots.isEmpty()) {
+                throw new IOException("Player table is full");
+            }
+        }
+        int slot = freeSlots.pop();
+
+        int offset = slotOffset(slot);
+        table.put(offset + STATE, SLOT_FREE);
+        int flags = 0;
+        if (username != null) flags |= HAS_USERNAME;
+        if (record.getLastCheckedAt() != null) flags |= HAS_CHECKED_AT;
+        if (record.getLastLeaderboardTotalLevel() != null) flags |= HAS_LEADERBOARD_LEVEL;
+        if (record.getLastWeeklySnapshotTotalLevel() != null) flags |= HAS_WEEKLY_LEVEL;
+        if (record.getLastWeeklySnapshotTotalXp() != null) flags |= HAS_WEEKLY_XP;
+        if (record.getLastWeeklySnapshotAt() != null) flags |= HAS_WEEKLY_AT;
+        if (record.isPingOnLeaderboard()) flags |= PING_ON_LEADERBOARD;
+        if (record.isPingOnLevelUp()) flags |= PING_ON_LEVEL_UP;
+        table.put(offset + FLAGS, (byte) flags);
+        table.put(offset + ID_LENGTH, (byte) id.length);
+        table.put(offset + ID, id);
+        table.put(offset + USERNAME_LENGTH, (byte) (username != null ? username.length : 0));
+        if (username != null) {
+            table.put(offset + USERNAME, username);
+        }
+        table.putInt(offset + TOTAL_LEVEL, record.getLastTotalLevel());
+        table.putLong(offset + TOTAL_XP, record.getLastTotalXp());
+        writeInstant(offset + CHECKED_AT, record.getLastCheckedAt());
+        table.putInt(offset + LEADERBOARD_LEVEL, orZero(record.getLastLeaderboardTotalLevel()));
+        table.putInt(offset + WEEKLY_LEVEL, orZero(record.getLastWeeklySnapshotTotalLevel()));
+        table.putLong(offset + WEEKLY_XP, record.getLastWeeklySnapshotTotalXp() != null
+                ? record.getLastWeeklySnapshotTotalXp() : 0L);
+        writeInstant(offset + WEEKLY_AT, record.getLastWeeklySnapshotAt());
+        for (int i = 0; i < Skill.count(); i++) {
+            table.putShort(offset + LEVELS + i * Short.BYTES, (short) record.getLevel(i));
+            table.putLong(offset + XP + i * Long.BYTES, record.getXp(i));
+        }
+        table.putLong(offset + GENERATION, nextGeneration++);
+        table.putInt(offset + CRC, checksum(offset));
+        table.put(offset + STATE, SLOT_USED);
+        Integer previous = slots.put(discordUserId, slot);
+        if (previous != null) {
+            replaced.add(previous);
+        }
+    }
+
+    private PlayerRecord readRecord(int offset) {
+        int flags = table.get(offset + FLAGS) & 0xFF;
+        int[] levels = new int[Skill.count()];
+        long[] xp = new long[Skill.count()];
+        for (int i = 0; i < levels.length; i++) {
+            levels[i] = table.getShort(offset + LEVELS + i * Short.BYTES);
+            xp[i] = table.getLong(offset + XP + i * Long.BYTES);
+        }
+        return new PlayerRecord(
+                (flags & HAS_USERNAME) != 0 ? readString(offset + USERNAME_LENGTH) : null,
+                table.getInt(offset + TOTAL_LEVEL),
+                table.getLong(offset + TOTAL_XP),
+                (flags & HAS_CHECKED_AT) != 0 ? readInstant(offset + CHECKED_AT) : null,
+                (flags & HAS_LEADERBOARD_LEVEL) != 0 ? table.getInt(offset + LEADERBOARD_LEVEL) : null,
+                (flags & HAS_WEEKLY_LEVEL) != 0 ? table.getInt(offset + WEEKLY_LEVEL) : null,
+                (flags & HAS_WEEKLY_XP) != 0 ? table.getLong(offset + WEEKLY_XP) : null,
+                (flags & HAS_WEEKLY_AT) != 0 ? readInstant(offset + WEEKLY_AT) : null,
+                levels,
+                xp,
+                (flags & PING_ON_LEADERBOARD) != 0,
+                (flags & PING_ON_LEVEL_UP) != 0);
+    }
+
+    private String readString(int lengthOffset) {
+        byte[] bytes = new byte[table.get(lengthOffset) & 0xFF];
+        table.get(lengthOffset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeInstant(int offset, Instant instant) {
+        table.putLong(offset, instant != null ? instant.getEpochSecond() : 0L);
+        table.putInt(offset + Long.BYTES, instant != null ? instant.getNano() : 0);
+    }
+
+    private Instant readInstant(int offset) {
+        return Instant.ofEpochSecond(table.getLong(offset), table.getInt(offset + Long.BYTES));
+    }
+
+    private int checksum(int offset) {
+        crc.reset();
+        crc.update(table.slice(offset + FLAGS, SLOT_SIZE - FLAGS));
+        return (int) crc.getValue();
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,169 @@
+package com.bobbot.storage;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Append-only log of player mutations kept next to the players.json snapshot.
+ * Each line is one compact JSON entry, so a single-player update costs one record
+ * instead of a full roster rewrite.
+ */
+class PlayerJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlayerJournal.class);
+    private static final String OP_PUT = "put";
+    private static final String OP_REMOVE = "remove";
+
+    private final Path file;
+    private final ObjectMapper mapper;
+    private int entryCount;
+
+    /**
+     * Create a journal backed by the given file.
+     *
+     * @param file journal file
+     * @param mapper mapper used for compact serialization
+     */
+    PlayerJournal(Path file, ObjectMapper mapper) {
+        this.file = file;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Apply every journaled entry to the given snapshot, in order.
+     * Replay stops at the first unreadable entry, such as a torn line from an
+     * interrupted append, and the journal is cut back to the last good entry so
+     * that later appends are not stranded behind it.
+     *
+     * @param players snapshot to update in place
+     * @throws IOException if the journal cannot be read or repaired
+     */
+    void replay(Map<String, PlayerRecord> players) throws IOException {
+        entryCount = 0;
+        if (!Files.exists(file)) {
+            return;
+        }
+        byte[] data = Files.readAllBytes(file);
+        int goodEnd = 0;
+        int start = 0;
+        while (start < data.length) {
+            int newline = start;
+            while (newline < data.length && data[newline] != '\n') {
+                newline++;
+            }
+            String line = new String(data, start, newline - start, StandardCharsets.UTF_8);
+            int next = Math.min(newline + 1, data.length);
+            if (line.isBlank()) {
+                start = next;
+                goodEnd = next;
+                continue;
+            }
+            Entry entry;
+            try {
+                entry = mapper.readValue(line, Entry.class);
+            } catch (JsonProcessingException e) {
+                LOGGER.warn("Stopping journal replay at unreadable entry {} in {}; dropping {} trailing bytes",
+                        entryCount + 1, file, data.length - goodEnd);
+                break;
+            }
+            if (OP_PUT.equals(entry.op()) && entry.player() != null) {
+                players.put(entry.id(), entry.player());
+            } else if (OP_REMOVE.equals(entry.op())) {
+                players.remove(entry.id());
+            }
+            entryCount++;
+            start = next;
+            goodEnd = next;
+        }
+        repairTail(data, goodEnd);
+    }
+
+    /**
+     * Cut the journal back to its last good entry and make sure it ends with a
+     * newline, so the next append starts on a line of its own.
+     */
+    private void repairTail(byte[] data, int goodEnd) throws IOException {
+        boolean missingNewline = goodEnd > 0 && data[goodEnd - 1] != '\n';
+        if (goodEnd == data.length && !missingNewline) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(goodEnd);
+            if (missingNewline) {
+                channel.write(ByteBuffer.wrap(new byte[] {'\n'}), goodEnd);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Append upserts and removals and force them to disk.
+     *
+     * @param upserts players to insert or replace
+     * @param removals Discord user IDs to remove
+     * @throws IOException if the append fails
+     */
+    void append(Map<String, PlayerRecord> upserts, Collection<String> removals) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int entries = 0;
+        for (Map.Entry<String, PlayerRecord> upsert : upserts.entrySet()) {
+            writeLine(buffer, new Entry(OP_PUT, upsert.getKey(), upsert.getValue()));
+            entries++;
+        }
+        for (String removal : removals) {
+            writeLine(buffer, new Entry(OP_REMOVE, removal, null));
+            entries++;
+        }
+        if (entries == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        entryCount += entries;
+    }
+
+    /**
+     * Drop all entries once they have been folded into a snapshot.
+     *
+     * @throws IOException if the journal cannot be removed
+     */
+    void truncate() throws IOException {
+        Files.deleteIfExists(file);
+        entryCount = 0;
+    }
+
+    /**
+     * @return number of entries not yet compacted into the snapshot
+     */
+    int entryCount() {
+        return entryCount;
+    }
+
+    private void writeLine(ByteArrayOutputStream buffer, Entry entry) throws IOException {
+        buffer.write(mapper.writeValueAsBytes(entry));
+        buffer.write('\n');
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Entry(String op, String id, PlayerRecord player) {
+    }
+}
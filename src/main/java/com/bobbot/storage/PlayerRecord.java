@@ -1,14 +1,21 @@
 package com.bobbot.storage;
 
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.Instant;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Immutable player record for OSRS hiscore tracking.
+ * Per-skill levels and XP are held in dense arrays indexed by {@link Skill#lineIndex()}
+ * (-1 when unknown) and exposed to JSON as the {@code skillLevels}/{@code skillXp} maps.
  */
 public class PlayerRecord {
     private final String username;
@@ -19,7 +26,8 @@ public class PlayerRecord {
     private final Integer lastWeeklySnapshotTotalLevel;
     private final Long lastWeeklySnapshotTotalXp;
     private final Instant lastWeeklySnapshotAt;
-    private final Map<String, Integer> skillLevels;
+    private final int[] levels;
+    private final long[] xp;
     private final boolean pingOnLeaderboard;
     private final boolean pingOnLevelUp;
 
@@ -34,7 +42,8 @@ public class PlayerRecord {
      * @param lastWeeklySnapshotTotalLevel total level at the start of the current week
      * @param lastWeeklySnapshotTotalXp total XP at the start of the current week
      * @param lastWeeklySnapshotAt timestamp for the weekly snapshot
-     * @param skillLevels map of skill levels
+     * @param skillLevels map of skill levels keyed by skill enum name
+     * @param skillXp map of skill XP keyed by skill enum name
      * @param pingOnLeaderboard whether to ping the user on leaderboard updates
      * @param pingOnLevelUp whether to ping the user on level ups
      */
@@ -49,9 +58,37 @@ public class PlayerRecord {
             @JsonProperty("lastWeeklySnapshotTotalXp") Long lastWeeklySnapshotTotalXp,
             @JsonProperty("lastWeeklySnapshotAt") Instant lastWeeklySnapshotAt,
             @JsonProperty("skillLevels") Map<String, Integer> skillLevels,
+            @JsonProperty("skillXp") Map<String, Long> skillXp,
             @JsonProperty("pingOnLeaderboard") Boolean pingOnLeaderboard,
             @JsonProperty("pingOnLevelUp") Boolean pingOnLevelUp
     ) {
+        this(username, lastTotalLevel, lastTotalXp, lastCheckedAt, lastLeaderboardTotalLevel,
+                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt,
+                levelsFromMap(skillLevels, lastTotalLevel), xpFromMap(skillXp, lastTotalXp),
+                pingOnLeaderboard != null ? pingOnLeaderboard : true,
+                pingOnLevelUp != null ? pingOnLevelUp : true);
+    }
+
+    /**
+     * Create a player record from dense per-skill arrays. The arrays are kept as-is and must not be modified.
+     *
+     * @param username OSRS username
+     * @param lastTotalLevel last known total level
+     * @param lastTotalXp last known total experience
+     * @param lastCheckedAt last time refreshed
+     * @param lastLeaderboardTotalLevel last total level at leaderboard time
+     * @param lastWeeklySnapshotTotalLevel total level at the start of the current week
+     * @param lastWeeklySnapshotTotalXp total XP at the start of the current week
+     * @param lastWeeklySnapshotAt timestamp for the weekly snapshot
+     * @param levels levels indexed by hiscore line, -1 when unknown
+     * @param xp XP indexed by hiscore line, -1 when unknown
+     * @param pingOnLeaderboard whether to ping the user on leaderboard updates
+     * @param pingOnLevelUp whether to ping the user on level ups
+     */
+    PlayerRecord(String username, int lastTotalLevel, long lastTotalXp, Instant lastCheckedAt,
+                 Integer lastLeaderboardTotalLevel, Integer lastWeeklySnapshotTotalLevel,
+                 Long lastWeeklySnapshotTotalXp, Instant lastWeeklySnapshotAt, int[] levels, long[] xp,
+                 boolean pingOnLeaderboard, boolean pingOnLevelUp) {
         this.username = username;
         this.lastTotalLevel = lastTotalLevel;
         this.lastTotalXp = lastTotalXp;
@@ -60,9 +97,25 @@ public class PlayerRecord {
         this.lastWeeklySnapshotTotalLevel = lastWeeklySnapshotTotalLevel;
         this.lastWeeklySnapshotTotalXp = lastWeeklySnapshotTotalXp;
         this.lastWeeklySnapshotAt = lastWeeklySnapshotAt;
-        this.skillLevels = skillLevels != null ? skillLevels : Collections.emptyMap();
-        this.pingOnLeaderboard = pingOnLeaderboard != null ? pingOnLeaderboard : true;
-        this.pingOnLevelUp = pingOnLevelUp != null ? pingOnLevelUp : true;
+        this.levels = levels;
+        this.xp = xp;
+        this.pingOnLeaderboard = pingOnLeaderboard;
+        this.pingOnLevelUp = pingOnLevelUp;
+    }
+
+    /**
+     * Create a record for a newly linked player, taking the weekly snapshot from the current stats.
+     *
+     * @param username OSRS username
+     * @param stats current hiscore stats
+     * @param linkedAt link time
+     * @return new player record
+     */
+    public static PlayerRecord linked(String username, PlayerStats stats, Instant linkedAt) {
+        int totalLevel = stats.level(Skill.TOTAL);
+        long totalXp = stats.xp(Skill.TOTAL);
+        return new PlayerRecord(username, totalLevel, totalXp, linkedAt, null, totalLevel, totalXp, linkedAt,
+                stats.copyLevels(), stats.copyXp(), true, true);
     }
 
     /**
@@ -122,10 +175,94 @@ public class PlayerRecord {
     }
 
     /**
-     * @return map of skill levels
+     * @return known skill levels keyed by skill enum name, excluding Overall
      */
+    @JsonProperty("skillLevels")
     public Map<String, Integer> getSkillLevels() {
-        return skillLevels;
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (Skill skill : Skill.ordered()) {
+            if (!skill.isOverall() && levels[skill.lineIndex()] != -1) {
+                map.put(skill.name(), levels[skill.lineIndex()]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return known skill XP keyed by skill enum name, excluding Overall
+     */
+    @JsonProperty("skillXp")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public Map<String, Long> getSkillXp() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Skill skill : Skill.ordered()) {
+            if (!skill.isOverall() && xp[skill.lineIndex()] != -1) {
+                map.put(skill.name(), xp[skill.lineIndex()]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @param skill skill to read
+     * @return last known level, or -1 if unknown
+     */
+    public int getLevel(Skill skill) {
+        return levels[skill.lineIndex()];
+    }
+
+    /**
+     * @param lineIndex hiscore line index
+     * @return last known level, or -1 if unknown
+     */
+    public int getLevel(int lineIndex) {
+        return levels[lineIndex];
+    }
+
+    /**
+     * @param skill skill to read
+     * @return last known XP, or -1 if unknown
+     */
+    public long getXp(Skill skill) {
+        return xp[skill.lineIndex()];
+    }
+
+    /**
+     * @param lineIndex hiscore line index
+     * @return last known XP, or -1 if unknown
+     */
+    public long getXp(int lineIndex) {
+        return xp[lineIndex];
+    }
+
+    /**
+     * @return fingerprint of the stored level and XP vectors, comparable with {@link PlayerStats#fingerprint()}
+     */
+    public long statsFingerprint() {
+        return PlayerStats.fingerprint(levels, xp);
+    }
+
+    /**
+     * Check whether fetched stats are identical to the ones stored on this record.
+     *
+     * @param stats fetched hiscore stats
+     * @return true if total XP and the per-skill fingerprint both match
+     */
+    public boolean hasSameStats(PlayerStats stats) {
+        return stats.xp(Skill.TOTAL) == lastTotalXp && stats.fingerprint() == statsFingerprint();
+    }
+
+    /**
+     * @return true if any individual skill level is known
+     */
+    @JsonIgnore
+    public boolean hasSkillLevels() {
+        for (int i = 0; i < levels.length; i++) {
+            if (i != Skill.TOTAL.lineIndex() && levels[i] != -1) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -143,17 +280,15 @@ public class PlayerRecord {
     }
 
     /**
-     * Create a copy with a new total level/XP, skill levels, and refreshed timestamp.
+     * Create a copy with new stats and a refreshed timestamp.
      *
-     * @param totalLevel updated total level
-     * @param totalXp updated total XP
-     * @param skillLevels updated map of skill levels
+     * @param stats current hiscore stats
      * @return new player record
      */
-    public PlayerRecord withLevel(int totalLevel, long totalXp, Map<String, Integer> skillLevels) {
-        return new PlayerRecord(username, totalLevel, totalXp, Instant.now(), lastLeaderboardTotalLevel,
-                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, skillLevels,
-                pingOnLeaderboard, pingOnLevelUp);
+    public PlayerRecord withStats(PlayerStats stats) {
+        return new PlayerRecord(username, stats.level(Skill.TOTAL), stats.xp(Skill.TOTAL), Instant.now(),
+                lastLeaderboardTotalLevel, lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt,
+                stats.copyLevels(), stats.copyXp(), pingOnLeaderboard, pingOnLevelUp);
     }
 
     /**
@@ -164,23 +299,25 @@ public class PlayerRecord {
      * @return new player record
      */
     public PlayerRecord withLevel(int totalLevel, long totalXp) {
+        int[] updatedLevels = levels.clone();
+        long[] updatedXp = xp.clone();
+        updatedLevels[Skill.TOTAL.lineIndex()] = totalLevel;
+        updatedXp[Skill.TOTAL.lineIndex()] = totalXp;
         return new PlayerRecord(username, totalLevel, totalXp, Instant.now(), lastLeaderboardTotalLevel,
-                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, skillLevels,
+                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, updatedLevels, updatedXp,
                 pingOnLeaderboard, pingOnLevelUp);
     }
 
     /**
-     * Create a copy with a new username, total level/XP, and skill levels.
+     * Create a copy with a new username and stats, clearing the snapshots.
      *
      * @param newUsername updated username
-     * @param totalLevel updated total level
-     * @param totalXp updated total XP
-     * @param skillLevels updated map of skill levels
+     * @param stats current hiscore stats
      * @return new player record
      */
-    public PlayerRecord withUsername(String newUsername, int totalLevel, long totalXp, Map<String, Integer> skillLevels) {
-        return new PlayerRecord(newUsername, totalLevel, totalXp, Instant.now(), null, null, null, null, skillLevels,
-                pingOnLeaderboard, pingOnLevelUp);
+    public PlayerRecord withUsername(String newUsername, PlayerStats stats) {
+        return new PlayerRecord(newUsername, stats.level(Skill.TOTAL), stats.xp(Skill.TOTAL), Instant.now(),
+                null, null, null, null, stats.copyLevels(), stats.copyXp(), pingOnLeaderboard, pingOnLevelUp);
     }
 
     /**
@@ -192,7 +329,12 @@ public class PlayerRecord {
      * @return new player record
      */
     public PlayerRecord withUsername(String newUsername, int totalLevel, long totalXp) {
-        return new PlayerRecord(newUsername, totalLevel, totalXp, Instant.now(), null, null, null, null, Collections.emptyMap(),
+        PlayerStats stats = PlayerStats.empty();
+        int[] emptyLevels = stats.copyLevels();
+        long[] emptyXp = stats.copyXp();
+        emptyLevels[Skill.TOTAL.lineIndex()] = totalLevel;
+        emptyXp[Skill.TOTAL.lineIndex()] = totalXp;
+        return new PlayerRecord(newUsername, totalLevel, totalXp, Instant.now(), null, null, null, null, emptyLevels, emptyXp,
                 pingOnLeaderboard, pingOnLevelUp);
     }
 
@@ -204,7 +346,7 @@ public class PlayerRecord {
      */
     public PlayerRecord withLeaderboardSnapshot(int totalLevel) {
         return new PlayerRecord(username, lastTotalLevel, lastTotalXp, lastCheckedAt, totalLevel,
-                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, skillLevels,
+                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, levels, xp,
                 pingOnLeaderboard, pingOnLevelUp);
     }
 
@@ -218,7 +360,7 @@ public class PlayerRecord {
      */
     public PlayerRecord withWeeklySnapshot(int totalLevel, long totalXp, Instant snapshotAt) {
         return new PlayerRecord(username, lastTotalLevel, lastTotalXp, lastCheckedAt, lastLeaderboardTotalLevel,
-                totalLevel, totalXp, snapshotAt, skillLevels,
+                totalLevel, totalXp, snapshotAt, levels, xp,
                 pingOnLeaderboard, pingOnLevelUp);
     }
 
@@ -230,7 +372,7 @@ public class PlayerRecord {
      */
     public PlayerRecord withPingOnLeaderboard(boolean enabled) {
         return new PlayerRecord(username, lastTotalLevel, lastTotalXp, lastCheckedAt, lastLeaderboardTotalLevel,
-                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, skillLevels,
+                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, levels, xp,
                 enabled, pingOnLevelUp);
     }
 
@@ -242,7 +384,45 @@ public class PlayerRecord {
      */
     public PlayerRecord withPingOnLevelUp(boolean enabled) {
         return new PlayerRecord(username, lastTotalLevel, lastTotalXp, lastCheckedAt, lastLeaderboardTotalLevel,
-                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, skillLevels,
+                lastWeeklySnapshotTotalLevel, lastWeeklySnapshotTotalXp, lastWeeklySnapshotAt, levels, xp,
                 pingOnLeaderboard, enabled);
     }
+
+    private static int[] levelsFromMap(Map<String, Integer> skillLevels, int totalLevel) {
+        int[] levels = new int[Skill.count()];
+        Arrays.fill(levels, -1);
+        levels[Skill.TOTAL.lineIndex()] = totalLevel;
+        if (skillLevels != null) {
+            for (Map.Entry<String, Integer> entry : skillLevels.entrySet()) {
+                Skill skill = skillByName(entry.getKey());
+                if (skill != null && !skill.isOverall() && entry.getValue() != null) {
+                    levels[skill.lineIndex()] = entry.getValue();
+                }
+            }
+        }
+        return levels;
+    }
+
+    private static long[] xpFromMap(Map<String, Long> skillXp, long totalXp) {
+        long[] xp = new long[Skill.count()];
+        Arrays.fill(xp, -1L);
+        xp[Skill.TOTAL.lineIndex()] = totalXp;
+        if (skillXp != null) {
+            for (Map.Entry<String, Long> entry : skillXp.entrySet()) {
+                Skill skill = skillByName(entry.getKey());
+                if (skill != null && !skill.isOverall() && entry.getValue() != null) {
+                    xp[skill.lineIndex()] = entry.getValue();
+                }
+            }
+        }
+        return xp;
+    }
+
+    private static Skill skillByName(String name) {
+        try {
+            return Skill.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
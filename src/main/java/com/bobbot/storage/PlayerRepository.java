@@ -0,0 +1,326 @@
+package com.bobbot.storage;
+
+import com.bobbot.util.FormatUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory view of linked players that sits in front of a {@link PlayerStore}.
+ * Readers go straight to a concurrent map and never touch the disk or take a lock.
+ * Writers apply read-modify-write updates under striped per-player locks, so a
+ * change to one player never waits on, or overwrites, a change to another, and
+ * each change is persisted write-through while its lock is held.
+ * Ranking queries are ordered by the store when it keeps its own indexes, and
+ * the ranked IDs are resolved against the in-memory map.
+ * When the store is shared with other processes, every update first picks up
+ * their changes, so updaters always see the latest persisted record.
+ */
+public class PlayerRepository {
+    private static final int LOCK_STRIPES = 64;
+    private static final Comparator<PlayerRecord> BY_TOTAL_LEVEL =
+            Comparator.comparingInt(PlayerRecord::getLastTotalLevel)
+                    .thenComparingLong(PlayerRecord::getLastTotalXp)
+                    .reversed();
+
+    private final PlayerStore storage;
+    private final ConcurrentHashMap<String, PlayerRecord> players = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> discordIdsByUsername = new ConcurrentHashMap<>();
+    private final Map<String, PlayerRecord> playersView = Collections.unmodifiableMap(players);
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Create a repository and load the current players from storage.
+     *
+     * @param storage player store
+     */
+    public PlayerRepository(PlayerStore storage) {
+        this.storage = storage;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        for (Map.Entry<String, PlayerRecord> entry : storage.loadPlayers().entrySet()) {
+            players.put(entry.getKey(), entry.getValue());
+            indexUsername(entry.getKey(), null, entry.getValue());
+        }
+    }
+
+    /**
+     * Return a read-only live view of all players keyed by Discord user ID.
+     * Iteration is weakly consistent; copy the map if a stable snapshot is needed.
+     *
+     * @return player map
+     */
+    public Map<String, PlayerRecord> all() {
+        return playersView;
+    }
+
+    /**
+     * Look up a player by Discord user ID.
+     *
+     * @param discordUserId Discord user ID
+     * @return player record, or null if not linked
+     */
+    public PlayerRecord get(String discordUserId) {
+        if (discordUserId == null) {
+            return null;
+        }
+        return players.get(discordUserId);
+    }
+
+    /**
+     * Find the Discord user ID linked to an OSRS username.
+     *
+     * @param username OSRS username (case, spaces, and underscores are ignored)
+     * @return Discord user ID if linked
+     */
+    public Optional<String> findDiscordIdByUsername(String username) {
+        return Optional.ofNullable(discordIdsByUsername.get(FormatUtils.normalizeOsrsUsername(username)));
+    }
+
+    /**
+     * @return number of linked players
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * @return true if no players are linked
+     */
+    public boolean isEmpty() {
+        return players.isEmpty();
+    }
+
+    /**
+     * Rank all players by total level, then total XP, highest first.
+     *
+     * @return ranked players
+     */
+    public List<PlayerRecord> rankByTotalLevel() {
+        if (storage instanceof IndexedPlayerStore indexed) {
+            List<PlayerRecord> records = new ArrayList<>(players.size());
+            for (String discordUserId : indexed.findIdsByTotalLevel()) {
+                PlayerRecord record = players.get(discordUserId);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+            return records;
+        }
+        List<PlayerRecord> records = new ArrayList<>(players.values());
+        records.sort(BY_TOTAL_LEVEL);
+        return records;
+    }
+
+    /**
+     * @return player with the highest total XP, if any
+     */
+    public Optional<PlayerRecord> topByTotalXp() {
+        if (storage instanceof IndexedPlayerStore indexed) {
+            return indexed.findTopIdByTotalXp().map(players::get);
+        }
+        return players.values().stream()
+                .max(Comparator.comparingLong(PlayerRecord::getLastTotalXp));
+    }
+
+    /**
+     * @return player with the highest XP gain since their weekly snapshot, if any
+     */
+    public Optional<PlayerRecord> topWeeklyXpGain() {
+        if (storage instanceof IndexedPlayerStore indexed) {
+            return indexed.findTopIdByWeeklyXpGain().map(players::get);
+        }
+        return players.values().stream()
+                .filter(record -> record.getLastWeeklySnapshotTotalXp() != null)
+                .max(Comparator.comparingLong(PlayerRepository::weeklyXpGain));
+    }
+
+    /**
+     * Compute the XP a player has gained since their weekly snapshot.
+     *
+     * @param record player record
+     * @return XP gained, or 0 when no snapshot has been taken
+     */
+    public static long weeklyXpGain(PlayerRecord record) {
+        Long snapshotXp = record.getLastWeeklySnapshotTotalXp();
+        return snapshotXp == null ? 0L : record.getLastTotalXp() - snapshotXp;
+    }
+
+    /**
+     * Atomically update a single player. The updater receives the current record
+     * (null if the player is not linked) and returns the new record, null to
+     * remove the player, or the same instance to leave it unchanged.
+     *
+     * @param discordUserId Discord user ID
+     * @param updater function from the current record to the new one
+     * @return the player's record after the update, or null if not linked
+     */
+    public PlayerRecord update(String discordUserId, UnaryOperator<PlayerRecord> updater) {
+        return updateAll(List.of(discordUserId), (id, current) -> updater.apply(current)).get(discordUserId);
+    }
+
+    /**
+     * Atomically update several players and persist the changes in one write.
+     * Each player's updater sees that player's current record, so concurrent
+     * single-player updates are never overwritten by a stale batch.
+     *
+     * @param discordUserIds Discord user IDs to update
+     * @param updater function from (Discord user ID, current record) to the new record
+     * @return records after the update for every requested player that is still linked
+     */
+    public Map<String, PlayerRecord> updateAll(Collection<String> discordUserIds,
+                                               BiFunction<String, PlayerRecord, PlayerRecord> updater) {
+        List<String> ids = List.copyOf(discordUserIds);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<ReentrantLock> held = lockStripes(ids);
+        Map<String, PlayerRecord> latest = storage.beginUpdate();
+        try {
+            if (latest != null) {
+                replaceWith(latest);
+            }
+            Map<String, PlayerRecord> results = new HashMap<>();
+            Map<String, PlayerRecord> upserts = new HashMap<>();
+            List<String> removals = new ArrayList<>();
+            for (String discordUserId : ids) {
+                PlayerRecord current = players.get(discordUserId);
+                PlayerRecord next = updater.apply(discordUserId, current);
+                if (next != current) {
+                    if (next == null) {
+                        players.remove(discordUserId);
+                        upserts.remove(discordUserId);
+                        removals.add(discordUserId);
+                    } else {
+                        players.put(discordUserId, next);
+                        upserts.put(discordUserId, next);
+                        removals.remove(discordUserId);
+                    }
+                    indexUsername(discordUserId, current, next);
+                }
+                if (next != null) {
+                    results.put(discordUserId, next);
+                } else {
+                    results.remove(discordUserId);
+                }
+            }
+            if (!upserts.isEmpty() || !removals.isEmpty()) {
+                storage.savePlayerChanges(playersView, upserts, removals);
+            }
+            return results;
+        } finally {
+            storage.endUpdate();
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Pick up changes other processes made to a shared store. Does nothing for
+     * stores used by this process alone.
+     */
+    public void reload() {
+        Map<String, PlayerRecord> latest = storage.beginUpdate();
+        try {
+            if (latest != null) {
+                replaceWith(latest);
+            }
+        } finally {
+            storage.endUpdate();
+        }
+    }
+
+    /**
+     * Insert or replace a single player.
+     *
+     * @param discordUserId Discord user ID
+     * @param record player record
+     */
+    public void put(String discordUserId, PlayerRecord record) {
+        update(discordUserId, current -> record);
+    }
+
+    /**
+     * Insert or replace several players in one write.
+     *
+     * @param updates players keyed by Discord user ID
+     */
+    public void putAll(Map<String, PlayerRecord> updates) {
+        updateAll(updates.keySet(), (id, current) -> updates.get(id));
+    }
+
+    /**
+     * Remove a player.
+     *
+     * @param discordUserId Discord user ID
+     * @return true if a player was removed
+     */
+    public boolean remove(String discordUserId) {
+        boolean[] removed = new boolean[1];
+        update(discordUserId, current -> {
+            removed[0] = current != null;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Lock the stripes covering the given players in a fixed order so batches never deadlock.
+     *
+     * @param discordUserIds Discord user IDs
+     * @return locks held, in acquisition order
+     */
+    private List<ReentrantLock> lockStripes(Collection<String> discordUserIds) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String discordUserId : discordUserIds) {
+            int hash = discordUserId.hashCode();
+            indexes.add(Math.floorMod(hash ^ (hash >>> 16), LOCK_STRIPES));
+        }
+        List<ReentrantLock> held = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            ReentrantLock stripe = stripes[index];
+            stripe.lock();
+            held.add(stripe);
+        }
+        return held;
+    }
+
+    /**
+     * Make the in-memory view match the persisted players. Callers hold the store's
+     * update lock, so no other update can run in between.
+     */
+    private void replaceWith(Map<String, PlayerRecord> latest) {
+        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
+            if (!latest.containsKey(entry.getKey())) {
+                players.remove(entry.getKey());
+                indexUsername(entry.getKey(), entry.getValue(), null);
+            }
+        }
+        for (Map.Entry<String, PlayerRecord> entry : latest.entrySet()) {
+            PlayerRecord previous = players.put(entry.getKey(), entry.getValue());
+            indexUsername(entry.getKey(), previous, entry.getValue());
+        }
+    }
+
+    private void indexUsername(String discordUserId, PlayerRecord previous, PlayerRecord next) {
+        if (previous != null && previous.getUsername() != null) {
+            discordIdsByUsername.remove(FormatUtils.normalizeOsrsUsername(previous.getUsername()), discordUserId);
+        }
+        if (next != null && next.getUsername() != null && !next.getUsername().isBlank()) {
+            discordIdsByUsername.put(FormatUtils.normalizeOsrsUsername(next.getUsername()), discordUserId);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.bobbot.storage;
+
+import com.bobbot.osrs.Skill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Versioned binary layout for the full player snapshot (players.bin).
+ * Skill names are written once in a header table and each player stores a dense
+ * column of levels in table order (one byte per skill when every level fits).
+ * Optional fields are tracked in a per-player flag byte instead of repeating
+ * field names for every record. Version 2 adds a per-skill XP column written as
+ * unsigned varints; version 1 snapshots are still readable. Decoding reads straight
+ * from a {@link ByteBuffer} over the file contents rather than through a stream,
+ * since the roster is decoded field by field on every startup.
+ */
+final class PlayerSnapshotCodec {
+    private static final int MAGIC = 0x424F4250; // "BOBP"
+    private static final int VERSION = 2;
+    private static final int VERSION_LEVELS_ONLY = 1;
+
+    private static final int HAS_USERNAME = 1;
+    private static final int HAS_CHECKED_AT = 1 << 1;
+    private static final int HAS_LEADERBOARD_LEVEL = 1 << 2;
+    private static final int HAS_WEEKLY_LEVEL = 1 << 3;
+    private static final int HAS_WEEKLY_XP = 1 << 4;
+    private static final int HAS_WEEKLY_AT = 1 << 5;
+    private static final int PING_ON_LEADERBOARD = 1 << 6;
+    private static final int PING_ON_LEVEL_UP = 1 << 7;
+    private static final int WIDE_LEVELS = 1;
+    private static final int ABSENT_LEVEL = Short.MIN_VALUE;
+
+    private PlayerSnapshotCodec() {
+    }
+
+    /**
+     * Encode a player snapshot.
+     *
+     * @param players players keyed by Discord user ID
+     * @return encoded bytes
+     * @throws IOException if encoding fails
+     */
+    static byte[] encode(Map<String, PlayerRecord> players) throws IOException {
+        Skill[] skills = Skill.ordered().stream().filter(skill -> !skill.isOverall()).toArray(Skill[]::new);
+        boolean wide = false;
+        for (PlayerRecord record : players.values()) {
+            for (Skill skill : skills) {
+                int level = record.getLevel(skill);
+                if (level < -1 || level > Byte.MAX_VALUE) {
+                    wide = true;
+                }
+            }
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + players.size() * 96);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(wide ? WIDE_LEVELS : 0);
+        out.writeShort(skills.length);
+        for (Skill skill : skills) {
+            out.writeUTF(skill.name());
+        }
+        out.writeInt(players.size());
+        for (Map.Entry<String, PlayerRecord> entry : players.entrySet()) {
+            writePlayer(out, entry.getKey(), entry.getValue(), skills, wide);
+        }
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decode a player snapshot.
+     *
+     * @param bytes encoded bytes
+     * @return players keyed by Discord user ID
+     * @throws IOException if the bytes are not a supported snapshot
+     */
+    static Map<String, PlayerRecord> decode(byte[] bytes) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a player snapshot");
+            }
+            int version = Byte.toUnsignedInt(in.get());
+            if (version != VERSION && version != VERSION_LEVELS_ONLY) {
+                throw new IOException("Unsupported player snapshot version " + version);
+            }
+            boolean wide = (in.get() & WIDE_LEVELS) != 0;
+            int skillCount = Short.toUnsignedInt(in.getShort());
+            Skill[] skills = new Skill[skillCount];
+            for (int i = 0; i < skillCount; i++) {
+                skills[i] = skillByName(readUtf(in));
+            }
+            boolean hasXp = version >= VERSION;
+            int playerCount = in.getInt();
+            Map<String, PlayerRecord> players = new HashMap<>(Math.max(16, playerCount * 4 / 3 + 1));
+            for (int i = 0; i < playerCount; i++) {
+                String discordId = readUtf(in);
+                players.put(discordId, readPlayer(in, skills, wide, hasXp));
+            }
+            return players;
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Player snapshot is truncated");
+        }
+    }
+
+    private static void writePlayer(DataOutputStream out, String discordId, PlayerRecord record,
+                                    Skill[] skills, boolean wide) throws IOException {
+        int flags = 0;
+        if (record.getUsername() != null) flags |= HAS_USERNAME;
+        if (record.getLastCheckedAt() != null) flags |= HAS_CHECKED_AT;
+        if (record.getLastLeaderboardTotalLevel() != null) flags |= HAS_LEADERBOARD_LEVEL;
+        if (record.getLastWeeklySnapshotTotalLevel() != null) flags |= HAS_WEEKLY_LEVEL;
+        if (record.getLastWeeklySnapshotTotalXp() != null) flags |= HAS_WEEKLY_XP;
+        if (record.getLastWeeklySnapshotAt() != null) flags |= HAS_WEEKLY_AT;
+        if (record.isPingOnLeaderboard()) flags |= PING_ON_LEADERBOARD;
+        if (record.isPingOnLevelUp()) flags |= PING_ON_LEVEL_UP;
+
+        out.writeUTF(discordId);
+        out.writeByte(flags);
+        if ((flags & HAS_USERNAME) != 0) out.writeUTF(record.getUsername());
+        out.writeInt(record.getLastTotalLevel());
+        out.writeLong(record.getLastTotalXp());
+        if ((flags & HAS_CHECKED_AT) != 0) writeInstant(out, record.getLastCheckedAt());
+        if ((flags & HAS_LEADERBOARD_LEVEL) != 0) out.writeInt(record.getLastLeaderboardTotalLevel());
+        if ((flags & HAS_WEEKLY_LEVEL) != 0) out.writeInt(record.getLastWeeklySnapshotTotalLevel());
+        if ((flags & HAS_WEEKLY_XP) != 0) out.writeLong(record.getLastWeeklySnapshotTotalXp());
+        if ((flags & HAS_WEEKLY_AT) != 0) writeInstant(out, record.getLastWeeklySnapshotAt());
+
+        for (Skill skill : skills) {
+            int level = record.getLevel(skill);
+            int value = level != -1 ? level : (wide ? ABSENT_LEVEL : Byte.MIN_VALUE);
+            if (wide) {
+                out.writeShort(value);
+            } else {
+                out.writeByte(value);
+            }
+        }
+        for (Skill skill : skills) {
+            writeVarLong(out, record.getXp(skill) + 1);
+        }
+    }
+
+    private static PlayerRecord readPlayer(ByteBuffer in, Skill[] skills, boolean wide, boolean hasXp)
+            throws IOException {
+        int flags = Byte.toUnsignedInt(in.get());
+        String username = (flags & HAS_USERNAME) != 0 ? readUtf(in) : null;
+        int totalLevel = in.getInt();
+        long totalXp = in.getLong();
+        Instant checkedAt = (flags & HAS_CHECKED_AT) != 0 ? readInstant(in) : null;
+        Integer leaderboardLevel = (flags & HAS_LEADERBOARD_LEVEL) != 0 ? in.getInt() : null;
+        Integer weeklyLevel = (flags & HAS_WEEKLY_LEVEL) != 0 ? in.getInt() : null;
+        Long weeklyXp = (flags & HAS_WEEKLY_XP) != 0 ? in.getLong() : null;
+        Instant weeklyAt = (flags & HAS_WEEKLY_AT) != 0 ? readInstant(in) : null;
+        int[] levels = new int[Skill.count()];
+        long[] xp = new long[Skill.count()];
+        Arrays.fill(levels, -1);
+        Arrays.fill(xp, -1L);
+        levels[Skill.TOTAL.lineIndex()] = totalLevel;
+        xp[Skill.TOTAL.lineIndex()] = totalXp;
+        for (Skill skill : skills) {
+            int level = wide ? in.getShort() : in.get();
+            if (skill != null && level != (wide ? ABSENT_LEVEL : Byte.MIN_VALUE)) {
+                levels[skill.lineIndex()] = level;
+            }
+        }
+        if (hasXp) {
+            for (Skill skill : skills) {
+                long value = readVarLong(in) - 1;
+                if (skill != null) {
+                    xp[skill.lineIndex()] = value;
+                }
+            }
+        }
+        return new PlayerRecord(username, totalLevel, totalXp, checkedAt, leaderboardLevel, weeklyLevel, weeklyXp,
+                weeklyAt, levels, xp, (flags & PING_ON_LEADERBOARD) != 0, (flags & PING_ON_LEVEL_UP) != 0);
+    }
+
+    private static Skill skillByName(String name) {
+        try {
+            return Skill.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in player snapshot");
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer in) {
+        long seconds = in.getLong();
+        return Instant.ofEpochSecond(seconds, in.getInt());
+    }
+
+    /**
+     * Read a string written by {@link DataOutputStream#writeUTF}. Discord IDs, usernames and
+     * skill names are plain ASCII, which is copied directly; anything else goes through
+     * {@link DataInputStream#readUTF} for the modified UTF-8 rules.
+     */
+    private static String readUtf(ByteBuffer in) throws IOException {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length > in.remaining()) {
+            throw new EOFException("Player snapshot is truncated");
+        }
+        byte[] array = in.array();
+        int start = in.arrayOffset() + in.position();
+        in.position(in.position() + length);
+        for (int i = start; i < start + length; i++) {
+            if (array[i] < 0) {
+                return DataInputStream.readUTF(new DataInputStream(new ByteArrayInputStream(array, start - 2, length + 2)));
+            }
+        }
+        return new String(array, start, length, StandardCharsets.ISO_8859_1);
+    }
+}
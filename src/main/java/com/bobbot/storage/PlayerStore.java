@@ -0,0 +1,61 @@
+package com.bobbot.storage;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Persistence backend for linked players.
+ */
+public interface PlayerStore {
+
+    /**
+     * Load player records keyed by Discord user ID.
+     *
+     * @return player map
+     */
+    Map<String, PlayerRecord> loadPlayers();
+
+    /**
+     * Persist a full snapshot of player records.
+     *
+     * @param players player map
+     */
+    void savePlayers(Map<String, PlayerRecord> players);
+
+    /**
+     * Persist a set of player changes.
+     *
+     * @param players full player map after the change; may be a live view, so copy it before keeping it
+     * @param upserts players inserted or replaced by the change
+     * @param removals Discord user IDs removed by the change
+     */
+    void savePlayerChanges(Map<String, PlayerRecord> players, Map<String, PlayerRecord> upserts,
+                           Collection<String> removals);
+
+    /**
+     * Start an update of a store that other processes write too. Such stores take
+     * a cross-process lock, held until {@link #endUpdate()}, and hand back the
+     * players as last persisted if another process changed them in the meantime.
+     *
+     * @return latest persisted players, or null if the caller's in-memory view is current
+     */
+    default Map<String, PlayerRecord> beginUpdate() {
+        return null;
+    }
+
+    /**
+     * Finish an update started with {@link #beginUpdate()}.
+     */
+    default void endUpdate() {
+    }
+
+    /**
+     * Write any buffered changes to durable storage.
+     */
+    void flush();
+
+    /**
+     * Flush and release any resources held by the store.
+     */
+    void close();
+}
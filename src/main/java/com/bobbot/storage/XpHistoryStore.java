@@ -0,0 +1,767 @@
+package com.bobbot.storage;
+
+import com.bobbot.osrs.PlayerStats;
+import com.bobbot.osrs.Skill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * Append-only history of per-skill XP samples for linked players.
+ * <p>
+ * Samples for the current UTC day are kept in memory and appended to {@code head.log}.
+ * Once a day is over it is sealed into a columnar segment file ({@code seg-<epochDay>.xps})
+ * holding one block per player: a delta-encoded timestamp column followed by one
+ * delta-encoded column per skill, with a player directory at the end of the file.
+ * Sealed segments are memory-mapped for reads. Segments older than the downsample
+ * age are rewritten to keep one sample per player per hour, and segments older than
+ * the retention period are deleted, so the footprint stays bounded.
+ * <p>
+ * In cluster mode every instance writes its own history, and a player's samples
+ * end up wherever the player was polled. A store opened with a peers directory
+ * also reads the histories of the other instances found there, reloading one
+ * only when its files changed, so reads see the whole cluster's samples.
+ */
+public final class XpHistoryStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XpHistoryStore.class);
+    private static final String DIRECTORY = "xp-history";
+    private static final String HEAD_FILE = "head.log";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".xps";
+    private static final int SEGMENT_MAGIC = 0x42585053; // "BXPS"
+    private static final int SEGMENT_VERSION = 1;
+    private static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int DOWNSAMPLED_RESOLUTION_SECONDS = 3_600;
+    /**
+     * Number of XP columns per sample, indexed by {@link Skill#lineIndex()}.
+     */
+    public static final int COLUMNS = Skill.values().length;
+
+    private final Path dir;
+    private final Path peersDir;
+    private final Map<Path, Peer> peers = new HashMap<>();
+    private final Duration retention;
+    private final Duration downsampleAfter;
+    private final Map<String, List<XpSample>> head = new HashMap<>();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private OutputStream headOut;
+    private long latestDay = Long.MIN_VALUE;
+
+    /**
+     * A single XP sample.
+     *
+     * @param at sample time (second precision)
+     * @param xp XP per skill indexed by {@link Skill#lineIndex()}, -1 when unknown
+     */
+    public record XpSample(Instant at, long[] xp) {
+        /**
+         * @param skill skill to read
+         * @return XP for the skill, or -1 when unknown
+         */
+        public long xp(Skill skill) {
+            return xp[skill.lineIndex()];
+        }
+    }
+
+    /**
+     * Open (or create) the history under the given data directory.
+     *
+     * @param dataDir base data directory
+     * @param retention how long samples are kept
+     * @param downsampleAfter age after which samples are thinned to one per hour
+     */
+    public XpHistoryStore(Path dataDir, Duration retention, Duration downsampleAfter) {
+        this(dataDir, retention, downsampleAfter, null);
+    }
+
+    /**
+     * Open (or create) the history under the given data directory and read the
+     * histories of other instances as well.
+     *
+     * @param dataDir this instance's data directory
+     * @param retention how long samples are kept
+     * @param downsampleAfter age after which samples are thinned to one per hour
+     * @param peersDir directory holding every instance's data directory, or null to read only this one
+     */
+    public XpHistoryStore(Path dataDir, Duration retention, Duration downsampleAfter, Path peersDir) {
+        this.dir = dataDir.resolve(DIRECTORY);
+        this.peersDir = peersDir;
+        this.retention = retention;
+        this.downsampleAfter = downsampleAfter;
+        try {
+            Files.createDirectories(dir);
+            openSegments();
+            replayHead();
+            maintain(Instant.now());
+        } catch (IOException e) {
+            LOGGER.warn("Failed to open XP history in {}", dir, e);
+        }
+    }
+
+    /**
+     * Record a player's skill XP as of the given time.
+     *
+     * @param discordUserId Discord user ID
+     * @param at sample time
+     * @param stats hiscore stats for the player
+     */
+    public synchronized void record(String discordUserId, Instant at, PlayerStats stats) {
+        long[] xp = stats.copyXp();
+        XpSample sample = new XpSample(Instant.ofEpochSecond(at.getEpochSecond()), xp);
+        long day = epochDay(sample.at());
+        if (day > latestDay) {
+            latestDay = day;
+            maintain(sample.at());
+        }
+        head.computeIfAbsent(discordUserId, id -> new ArrayList<>()).add(sample);
+        try {
+            if (headOut == null) {
+                headOut = openHeadForAppend();
+            }
+            writeHeadEntry(headOut, discordUserId, sample);
+            headOut.flush();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to append XP sample for {}", discordUserId, e);
+        }
+    }
+
+    /**
+     * Return a player's samples in a time range, oldest first.
+     *
+     * @param discordUserId Discord user ID
+     * @param from range start (inclusive)
+     * @param to range end (inclusive)
+     * @return samples in range
+     */
+    public synchronized List<XpSample> samples(String discordUserId, Instant from, Instant to) {
+        long fromSec = from.getEpochSecond();
+        long toSec = to.getEpochSecond();
+        List<XpSample> result = new ArrayList<>();
+        collect(segments, head, discordUserId, fromSec, toSec, result);
+        int local = result.size();
+        for (Peer peer : refreshPeers()) {
+            collect(peer.segments(), peer.head(), discordUserId, fromSec, toSec, result);
+        }
+        if (result.size() > local) {
+            result.sort(Comparator.comparing(XpSample::at));
+        }
+        return result;
+    }
+
+    private static void collect(NavigableMap<Long, Segment> segments, Map<String, List<XpSample>> head, String discordUserId,
+                                long fromSec, long toSec, List<XpSample> result) {
+        for (Segment segment : segments.subMap(Math.floorDiv(fromSec, SECONDS_PER_DAY), true,
+                Math.floorDiv(toSec, SECONDS_PER_DAY), true).values()) {
+            for (XpSample sample : segment.read(discordUserId)) {
+                if (inRange(sample, fromSec, toSec)) {
+                    result.add(sample);
+                }
+            }
+        }
+        for (XpSample sample : head.getOrDefault(discordUserId, List.of())) {
+            if (inRange(sample, fromSec, toSec)) {
+                result.add(sample);
+            }
+        }
+    }
+
+    /**
+     * Compute the XP a player gained in a skill between two times. Samples are only
+     * recorded when a player's stats change, so the last sample before the range
+     * stands for the player's XP at its start; the gain runs from there (or from the
+     * first sample in range) to the last sample in range.
+     *
+     * @param discordUserId Discord user ID
+     * @param skill skill to measure
+     * @param from range start (inclusive)
+     * @param to range end (inclusive)
+     * @return XP gained, or empty if no sample before the range and fewer than two inside it are known
+     */
+    public synchronized OptionalLong xpGained(String discordUserId, Skill skill, Instant from, Instant to) {
+        long first = -1;
+        long last = -1;
+        int known = 0;
+        List<XpSample> samples = new ArrayList<>();
+        XpSample baseline = latestBefore(discordUserId, from.getEpochSecond());
+        if (baseline != null) {
+            samples.add(baseline);
+        }
+        samples.addAll(samples(discordUserId, from, to));
+        for (XpSample sample : samples) {
+            long xp = sample.xp(skill);
+            if (xp < 0) {
+                continue;
+            }
+            if (known++ == 0) {
+                first = xp;
+            }
+            last = xp;
+        }
+        if (known == 0 || (known == 1 && baseline == null)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Math.max(0L, last - first));
+    }
+
+    /**
+     * Find the player's newest sample strictly before the given time, in this history or a peer's.
+     */
+    private XpSample latestBefore(String discordUserId, long beforeSec) {
+        XpSample latest = latestBefore(segments, head, discordUserId, beforeSec);
+        for (Peer peer : refreshPeers()) {
+            XpSample candidate = latestBefore(peer.segments(), peer.head(), discordUserId, beforeSec);
+            if (candidate != null && (latest == null || candidate.at().isAfter(latest.at()))) {
+                latest = candidate;
+            }
+        }
+        return latest;
+    }
+
+    private static XpSample latestBefore(NavigableMap<Long, Segment> segments, Map<String, List<XpSample>> head,
+                                         String discordUserId, long beforeSec) {
+        XpSample latest = latestBefore(head.getOrDefault(discordUserId, List.of()), beforeSec);
+        if (latest != null) {
+            return latest;
+        }
+        for (Segment segment : segments.headMap(Math.floorDiv(beforeSec, SECONDS_PER_DAY), true).descendingMap().values()) {
+            latest = latestBefore(segment.read(discordUserId), beforeSec);
+            if (latest != null) {
+                return latest;
+            }
+        }
+        return null;
+    }
+
+    private static XpSample latestBefore(List<XpSample> samples, long beforeSec) {
+        XpSample latest = null;
+        for (XpSample sample : samples) {
+            if (sample.at().getEpochSecond() < beforeSec) {
+                latest = sample;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return total bytes used by sealed segments and the head log
+     */
+    public synchronized long footprintBytes() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size();
+        }
+        try {
+            Path headFile = dir.resolve(HEAD_FILE);
+            if (Files.exists(headFile)) {
+                total += Files.size(headFile);
+            }
+        } catch (IOException ignored) {
+            // best effort
+        }
+        return total;
+    }
+
+    /**
+     * Flush and close the head log. Sealed segments stay on disk.
+     */
+    public synchronized void close() {
+        if (headOut != null) {
+            try {
+                headOut.close();
+            } catch (IOException ignored) {
+                // best effort
+            }
+            headOut = null;
+        }
+    }
+
+    /**
+     * Seal finished days, then apply downsampling and retention.
+     *
+     * @param now current time
+     */
+    private synchronized void maintain(Instant now) {
+        long today = epochDay(now);
+        try {
+            sealBefore(today);
+            long retainFrom = epochDay(now.minus(retention));
+            long downsampleBefore = epochDay(now.minus(downsampleAfter));
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment.day() < retainFrom) {
+                    deleteSegment(segment);
+                } else if (segment.day() < downsampleBefore && segment.resolutionSeconds() == 0) {
+                    downsample(segment);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("XP history maintenance failed", e);
+        }
+    }
+
+    private void sealBefore(long today) throws IOException {
+        Map<Long, Map<String, List<XpSample>>> byDay = new TreeMap<>();
+        boolean sealed = false;
+        for (Map.Entry<String, List<XpSample>> entry : head.entrySet()) {
+            List<XpSample> keep = new ArrayList<>();
+            for (XpSample sample : entry.getValue()) {
+                long day = epochDay(sample.at());
+                if (day < today) {
+                    byDay.computeIfAbsent(day, d -> new LinkedHashMap<>())
+                            .computeIfAbsent(entry.getKey(), id -> new ArrayList<>())
+                            .add(sample);
+                    sealed = true;
+                } else {
+                    keep.add(sample);
+                }
+            }
+            entry.setValue(keep);
+        }
+        if (!sealed) {
+            return;
+        }
+        head.values().removeIf(List::isEmpty);
+        for (Map.Entry<Long, Map<String, List<XpSample>>> day : byDay.entrySet()) {
+            Map<String, List<XpSample>> samples = day.getValue();
+            Segment existing = segments.get(day.getKey());
+            int resolution = 0;
+            if (existing != null) {
+                resolution = existing.resolutionSeconds();
+                for (String id : existing.playerIds()) {
+                    List<XpSample> merged = new ArrayList<>(existing.read(id));
+                    merged.addAll(samples.getOrDefault(id, List.of()));
+                    samples.put(id, merged);
+                }
+            }
+            if (resolution > 0) {
+                samples.replaceAll((id, list) -> thin(list, DOWNSAMPLED_RESOLUTION_SECONDS));
+            }
+            writeSegment(day.getKey(), resolution, samples);
+        }
+        rewriteHead();
+        LOGGER.debug("Sealed {} day(s) of XP history", byDay.size());
+    }
+
+    private void downsample(Segment segment) throws IOException {
+        Map<String, List<XpSample>> samples = new LinkedHashMap<>();
+        for (String id : segment.playerIds()) {
+            samples.put(id, thin(segment.read(id), DOWNSAMPLED_RESOLUTION_SECONDS));
+        }
+        writeSegment(segment.day(), DOWNSAMPLED_RESOLUTION_SECONDS, samples);
+    }
+
+    private static List<XpSample> thin(List<XpSample> samples, int resolutionSeconds) {
+        List<XpSample> thinned = new ArrayList<>();
+        for (XpSample sample : samples) {
+            long bucket = Math.floorDiv(sample.at().getEpochSecond(), resolutionSeconds);
+            if (!thinned.isEmpty()) {
+                XpSample previous = thinned.get(thinned.size() - 1);
+                if (Math.floorDiv(previous.at().getEpochSecond(), resolutionSeconds) == bucket) {
+                    thinned.set(thinned.size() - 1, sample);
+                    continue;
+                }
+            }
+            thinned.add(sample);
+        }
+        return thinned;
+    }
+
+    private void deleteSegment(Segment segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment.day()));
+            segments.remove(segment.day());
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete expired XP history segment for day {}", segment.day(), e);
+        }
+    }
+
+    /**
+     * Write a segment through a temp file and map it for reads.
+     * Layout: header (magic, version, day, resolution, columns), one block per player,
+     * a directory of (player ID, block offset, sample count), then a footer with the
+     * directory offset and magic.
+     */
+    private void writeSegment(long day, int resolutionSeconds, Map<String, List<XpSample>> samples) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeByte(SEGMENT_VERSION);
+        out.writeLong(day);
+        out.writeInt(resolutionSeconds);
+        out.writeByte(COLUMNS);
+        Map<String, long[]> directory = new LinkedHashMap<>();
+        for (Map.Entry<String, List<XpSample>> entry : samples.entrySet()) {
+            List<XpSample> block = entry.getValue();
+            if (block.isEmpty()) {
+                continue;
+            }
+            directory.put(entry.getKey(), new long[]{out.size(), block.size()});
+            writeBlock(out, block);
+        }
+        long directoryOffset = out.size();
+        writeVarLong(out, directory.size());
+        for (Map.Entry<String, long[]> entry : directory.entrySet()) {
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, id.length);
+            out.write(id);
+            writeVarLong(out, entry.getValue()[0]);
+            writeVarLong(out, entry.getValue()[1]);
+        }
+        out.writeLong(directoryOffset);
+        out.writeInt(SEGMENT_MAGIC);
+        out.flush();
+
+        Path target = segmentPath(day);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        Files.write(temp, buffer.toByteArray());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        segments.put(day, Segment.open(target));
+    }
+
+    private static void writeBlock(DataOutputStream out, List<XpSample> block) throws IOException {
+        long previous = 0;
+        for (XpSample sample : block) {
+            long seconds = sample.at().getEpochSecond();
+            writeVarLong(out, zigZag(seconds - previous));
+            previous = seconds;
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            previous = 0;
+            for (XpSample sample : block) {
+                long value = sample.xp()[column];
+                writeVarLong(out, zigZag(value - previous));
+                previous = value;
+            }
+        }
+    }
+
+    private void openSegments() throws IOException {
+        openSegments(dir, segments);
+    }
+
+    private static void openSegments(Path dir, NavigableMap<Long, Segment> segments) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    Segment segment = Segment.open(file);
+                    segments.put(segment.day(), segment);
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping unreadable XP history segment {}", file.getFileName(), e);
+                }
+            }
+        }
+    }
+
+    private void replayHead() throws IOException {
+        if (!Files.exists(dir.resolve(HEAD_FILE))) {
+            return;
+        }
+        readHead(dir.resolve(HEAD_FILE), head);
+        // drop any torn trailing entry so later appends start on a clean boundary
+        rewriteHead();
+    }
+
+    /**
+     * Read head log entries up to the end of the file or the first torn entry.
+     */
+    private static void readHead(Path file, Map<String, List<XpSample>> head) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                String id;
+                XpSample sample;
+                try {
+                    id = in.readUTF();
+                    Instant at = Instant.ofEpochSecond(in.readLong());
+                    int columns = in.readUnsignedByte();
+                    long[] xp = new long[COLUMNS];
+                    Arrays.fill(xp, -1L);
+                    for (int i = 0; i < columns; i++) {
+                        long value = in.readLong();
+                        if (i < COLUMNS) {
+                            xp[i] = value;
+                        }
+                    }
+                    sample = new XpSample(at, xp);
+                } catch (EOFException e) {
+                    break;
+                } catch (IOException e) {
+                    LOGGER.warn("Stopping XP history replay at an unreadable entry in {}", HEAD_FILE);
+                    break;
+                }
+                head.computeIfAbsent(id, key -> new ArrayList<>()).add(sample);
+            }
+        }
+    }
+
+    /**
+     * Load the histories of the other instances in the peers directory, reusing
+     * each one until the files in its history directory change.
+     *
+     * @return current peer histories
+     */
+    private List<Peer> refreshPeers() {
+        if (peersDir == null || !Files.isDirectory(peersDir)) {
+            return List.of();
+        }
+        List<Peer> current = new ArrayList<>();
+        Map<Path, Peer> seen = new HashMap<>();
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(peersDir, Files::isDirectory)) {
+            for (Path instance : instances) {
+                Path peerDir = instance.resolve(DIRECTORY);
+                if (peerDir.equals(dir) || !Files.isDirectory(peerDir)) {
+                    continue;
+                }
+                try {
+                    String stamp = Peer.stamp(peerDir);
+                    Peer peer = peers.get(peerDir);
+                    if (peer == null || !peer.stamp().equals(stamp)) {
+                        peer = Peer.load(peerDir, stamp);
+                    }
+                    seen.put(peerDir, peer);
+                    current.add(peer);
+                } catch (IOException e) {
+                    LOGGER.warn("Skipping unreadable XP history in {}", peerDir, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to list XP histories in {}", peersDir, e);
+        }
+        peers.keySet().retainAll(seen.keySet());
+        peers.putAll(seen);
+        return current;
+    }
+
+    private void rewriteHead() throws IOException {
+        close();
+        Path target = dir.resolve(HEAD_FILE);
+        Path temp = dir.resolve(HEAD_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (Map.Entry<String, List<XpSample>> entry : head.entrySet()) {
+                for (XpSample sample : entry.getValue()) {
+                    writeHeadEntry(out, entry.getKey(), sample);
+                }
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private OutputStream openHeadForAppend() throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(dir.resolve(HEAD_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    private static void writeHeadEntry(OutputStream stream, String discordUserId, XpSample sample) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeUTF(discordUserId);
+        out.writeLong(sample.at().getEpochSecond());
+        out.writeByte(COLUMNS);
+        for (long value : sample.xp()) {
+            out.writeLong(value);
+        }
+    }
+
+    private Path segmentPath(long day) {
+        return dir.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX);
+    }
+
+    private static boolean inRange(XpSample sample, long fromSec, long toSec) {
+        long seconds = sample.at().getEpochSecond();
+        return seconds >= fromSec && seconds <= toSec;
+    }
+
+    private static long epochDay(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * A sealed, memory-mapped day of samples.
+     */
+    /**
+     * Read-only copy of another instance's history.
+     *
+     * @param stamp names, sizes and modification times of its files when loaded
+     * @param segments sealed segments by epoch day
+     * @param head samples from its head log
+     */
+    private record Peer(String stamp, NavigableMap<Long, Segment> segments, Map<String, List<XpSample>> head) {
+        static Peer load(Path dir, String stamp) throws IOException {
+            NavigableMap<Long, Segment> segments = new TreeMap<>();
+            Map<String, List<XpSample>> head = new HashMap<>();
+            openSegments(dir, segments);
+            if (Files.exists(dir.resolve(HEAD_FILE))) {
+                readHead(dir.resolve(HEAD_FILE), head);
+            }
+            return new Peer(stamp, segments, head);
+        }
+
+        static String stamp(Path dir) throws IOException {
+            List<String> entries = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                for (Path file : files) {
+                    entries.add(file.getFileName() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+            entries.sort(null);
+            return String.join(",", entries);
+        }
+    }
+
+    private static final class Segment {
+        private final long day;
+        private final int resolutionSeconds;
+        private final int columns;
+        private final MappedByteBuffer buffer;
+        private final Map<String, long[]> directory;
+
+        private Segment(long day, int resolutionSeconds, int columns, MappedByteBuffer buffer, Map<String, long[]> directory) {
+            this.day = day;
+            this.resolutionSeconds = resolutionSeconds;
+            this.columns = columns;
+            this.buffer = buffer;
+            this.directory = directory;
+        }
+
+        static Segment open(Path file) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < FOOTER_BYTES || buffer.getInt(0) != SEGMENT_MAGIC
+                    || buffer.getInt(buffer.capacity() - Integer.BYTES) != SEGMENT_MAGIC) {
+                throw new IOException("Not an XP history segment: " + file.getFileName());
+            }
+            if (buffer.get(4) != SEGMENT_VERSION) {
+                throw new IOException("Unsupported XP history segment version in " + file.getFileName());
+            }
+            long day = buffer.getLong(5);
+            int resolution = buffer.getInt(13);
+            int columns = buffer.get(17) & 0xFF;
+            ByteBuffer dir = buffer.duplicate();
+            dir.position((int) buffer.getLong(buffer.capacity() - FOOTER_BYTES));
+            int players = (int) readVarLong(dir);
+            Map<String, long[]> directory = new HashMap<>(Math.max(16, players * 4 / 3 + 1));
+            for (int i = 0; i < players; i++) {
+                byte[] id = new byte[(int) readVarLong(dir)];
+                dir.get(id);
+                directory.put(new String(id, StandardCharsets.UTF_8), new long[]{readVarLong(dir), readVarLong(dir)});
+            }
+            return new Segment(day, resolution, columns, buffer, directory);
+        }
+
+        long day() {
+            return day;
+        }
+
+        int resolutionSeconds() {
+            return resolutionSeconds;
+        }
+
+        long size() {
+            return buffer.capacity();
+        }
+
+        Iterable<String> playerIds() {
+            return directory.keySet();
+        }
+
+        List<XpSample> read(String discordUserId) {
+            long[] entry = directory.get(discordUserId);
+            if (entry == null) {
+                return List.of();
+            }
+            ByteBuffer block = buffer.duplicate();
+            block.position((int) entry[0]);
+            int count = (int) entry[1];
+            long[] seconds = new long[count];
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += unZigZag(readVarLong(block));
+                seconds[i] = previous;
+            }
+            long[][] xp = new long[count][COLUMNS];
+            for (long[] row : xp) {
+                Arrays.fill(row, -1L);
+            }
+            for (int column = 0; column < columns; column++) {
+                previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += unZigZag(readVarLong(block));
+                    if (column < COLUMNS) {
+                        xp[i][column] = previous;
+                    }
+                }
+            }
+            List<XpSample> samples = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                samples.add(new XpSample(Instant.ofEpochSecond(seconds[i]), xp[i]));
+            }
+            return samples;
+        }
+    }
+}
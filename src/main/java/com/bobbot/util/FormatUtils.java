@@ -1,6 +1,7 @@
 package com.bobbot.util;
 
 import java.time.Duration;
+import java.util.Locale;
 
 /**
  * General purpose formatting utilities.
@@ -48,4 +49,21 @@ public final class FormatUtils {
         // OSRS usernames allow letters, numbers, spaces, underscores, and hyphens
         return trimmed.matches("^[a-zA-Z0-9\\s_-]+$");
     }
+
+    /**
+     * Normalize an OSRS username for lookups.
+     * The hiscores treat spaces, underscores, and hyphens as the same character and ignore case.
+     *
+     * @param username the username to normalize
+     * @return normalized username, or an empty string if null
+     */
+    public static String normalizeOsrsUsername(String username) {
+        if (username == null) {
+            return "";
+        }
+        return username.trim()
+                .replace('_', ' ')
+                .replace('-', ' ')
+                .toLowerCase(Locale.ROOT);
+    }
 }